@@ -0,0 +1,100 @@
+package com.example.demo.controller;
+
+import com.example.demo.dto.MutualUsers;
+import com.example.demo.dto.UserRef;
+import com.example.demo.service.UserService;
+import com.example.demo.service.graph.SuggestionEngine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.security.Principal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+public class GraphController {
+
+    private final UserService userService;
+    private final SuggestionEngine suggestionEngine;
+    private final PageJsonWriter pageJsonWriter;
+
+    @Autowired
+    public GraphController(UserService userService, SuggestionEngine suggestionEngine, PageJsonWriter pageJsonWriter) {
+        this.userService = userService;
+        this.suggestionEngine = suggestionEngine;
+        this.pageJsonWriter = pageJsonWriter;
+    }
+
+    @GetMapping("/suggestions")
+    public ResponseEntity<String> getSuggestions(Principal principal, @RequestParam(defaultValue = "20") int size) {
+        try {
+            if (principal == null) throw new BadCredentialsException("Invalid auth token passed");
+            int userId = userService.getByUsername(principal.getName()).getId();
+
+            Map<String, Object> body = new LinkedHashMap<>();
+            body.put("suggestions", suggestionEngine.suggest(userId, size));
+            return pageJsonWriter.json(body, HttpStatus.OK);
+        }
+        catch (Throwable e) {
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    @GetMapping("/users/{name}/followers")
+    public ResponseEntity<String> getFollowers(Principal principal,
+                                               @PathVariable String name,
+                                               @RequestParam(required = false) Integer cursor,
+                                               @RequestParam(defaultValue = "100") int size) {
+        try {
+            if (principal == null) throw new BadCredentialsException("Invalid auth token passed");
+            return pageJsonWriter.json(userPage(userService.getFollowers(name, cursor, size)), HttpStatus.OK);
+        }
+        catch (Throwable e) {
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    @GetMapping("/users/{name}/following")
+    public ResponseEntity<String> getFollowing(Principal principal,
+                                               @PathVariable String name,
+                                               @RequestParam(required = false) Integer cursor,
+                                               @RequestParam(defaultValue = "100") int size) {
+        try {
+            if (principal == null) throw new BadCredentialsException("Invalid auth token passed");
+            return pageJsonWriter.json(userPage(userService.getFollowing(name, cursor, size)), HttpStatus.OK);
+        }
+        catch (Throwable e) {
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    @GetMapping("/mutual")
+    public ResponseEntity<String> getMutual(Principal principal,
+                                            @RequestParam String with,
+                                            @RequestParam(defaultValue = "friends") String kind,
+                                            @RequestParam(defaultValue = "10") int limit) {
+        try {
+            if (principal == null) throw new BadCredentialsException("Invalid auth token passed");
+            MutualUsers mutual = userService.getMutual(principal.getName(), with, kind, limit);
+
+            return pageJsonWriter.json(mutual, HttpStatus.OK);
+        }
+        catch (Throwable e) {
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    private static Map<String, Object> userPage(Slice<UserRef> users) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("users", users.getContent());
+        body.put("nextCursor", users.hasNext() ? users.getContent().get(users.getNumberOfElements() - 1).id() : null);
+        return body;
+    }
+}
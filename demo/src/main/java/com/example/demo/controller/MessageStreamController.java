@@ -0,0 +1,41 @@
+package com.example.demo.controller;
+
+import com.example.demo.service.UserService;
+import com.example.demo.service.push.MessagePushHub;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.security.Principal;
+
+@RestController
+public class MessageStreamController {
+
+    private final UserService userService;
+    private final MessagePushHub messagePushHub;
+    private final PageJsonWriter pageJsonWriter;
+
+    @Autowired
+    public MessageStreamController(UserService userService, MessagePushHub messagePushHub, PageJsonWriter pageJsonWriter) {
+        this.userService = userService;
+        this.messagePushHub = messagePushHub;
+        this.pageJsonWriter = pageJsonWriter;
+    }
+
+    @GetMapping(value = "/user/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public void streamMessages(Principal principal, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        try {
+            if (principal == null) throw new BadCredentialsException("Invalid auth token passed");
+            int userId = userService.getByUsername(principal.getName()).getId();
+            messagePushHub.open(userId, request, response);
+        }
+        catch (Throwable e) {
+            if (!request.isAsyncStarted()) pageJsonWriter.writeError(response, e);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.demo.controller;
+
+import com.example.demo.dto.NotificationView;
+import com.example.demo.service.UserService;
+import com.example.demo.service.notification.NotificationCenter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.security.Principal;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+public class NotificationController {
+
+    private final UserService userService;
+    private final NotificationCenter notificationCenter;
+    private final PageJsonWriter pageJsonWriter;
+    private final Duration longPollTimeout;
+
+    @Autowired
+    public NotificationController(UserService userService, NotificationCenter notificationCenter, PageJsonWriter pageJsonWriter,
+                                  @Value("${notifications.long-poll-timeout:25s}") Duration longPollTimeout) {
+        this.userService = userService;
+        this.notificationCenter = notificationCenter;
+        this.pageJsonWriter = pageJsonWriter;
+        this.longPollTimeout = longPollTimeout;
+    }
+
+    /**
+     * Without {@code since}, pages back from the newest notification. With {@code since}, returns the notifications
+     * newer than that seq, and with {@code wait} holds the request until one arrives.
+     */
+    @GetMapping("/notifications")
+    public DeferredResult<ResponseEntity<String>> getNotifications(Principal principal,
+                                                                   @RequestParam(required = false) Long cursor,
+                                                                   @RequestParam(required = false) Long since,
+                                                                   @RequestParam(defaultValue = "20") int size,
+                                                                   @RequestParam(defaultValue = "false") boolean wait) {
+        try {
+            if (principal == null) throw new BadCredentialsException("Invalid auth token passed");
+            int userId = userService.getByUsername(principal.getName()).getId();
+
+            if (since == null) {
+                Slice<NotificationView> page = notificationCenter.page(userId, cursor, size);
+                Map<String, Object> body = new LinkedHashMap<>();
+                body.put("notifications", page.getContent());
+                body.put("nextCursor", page.hasNext() ? page.getContent().get(page.getNumberOfElements() - 1).seq() : null);
+                return completed(pageJsonWriter.json(body, HttpStatus.OK));
+            }
+
+            if (!wait)
+                return completed(newerResponse(notificationCenter.newer(userId, since, size), since));
+            return notificationCenter.poll(userId, since, size, longPollTimeout, notifications -> newerResponse(notifications, since));
+        }
+        catch (Throwable e) {
+            return completed(new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST));
+        }
+    }
+
+    private ResponseEntity<String> newerResponse(List<NotificationView> notifications, long since) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("notifications", notifications);
+        body.put("latest", notifications.isEmpty() ? since : notifications.get(notifications.size() - 1).seq());
+        return pageJsonWriter.json(body, HttpStatus.OK);
+    }
+
+    private static DeferredResult<ResponseEntity<String>> completed(ResponseEntity<String> response) {
+        DeferredResult<ResponseEntity<String>> result = new DeferredResult<>();
+        result.setResult(response);
+        return result;
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.demo.controller;
+
+import com.example.demo.dto.MessageView;
+import com.example.demo.dto.PostView;
+import com.example.demo.service.cache.PostJsonCache;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Writes post and message pages as JSON straight to the servlet output stream, field by field,
+ * without building the response body in memory first. Posts are copied from their cached encodings.
+ * Smaller bodies go through {@link #json}, with dates in the same format.
+ */
+@Component
+public class PageJsonWriter {
+
+    private final JsonFactory jsonFactory;
+    private final ObjectMapper objectMapper;
+    private final PostJsonCache postJsonCache;
+
+    @Autowired
+    public PageJsonWriter(ObjectMapper objectMapper, PostJsonCache postJsonCache) {
+        this.jsonFactory = objectMapper.getFactory();
+        this.objectMapper = objectMapper.copy()
+                .registerModule(new SimpleModule().addSerializer(LocalDateTime.class, ToStringSerializer.instance));
+        this.postJsonCache = postJsonCache;
+    }
+
+    /**
+     * @param totalItems written only when not {@code null}
+     */
+    public void writePosts(HttpServletResponse response, List<PostView> posts, String nextCursor, Long totalItems) throws IOException {
+        try (JsonGenerator json = open(response)) {
+            json.writeStartObject();
+            json.writeArrayFieldStart("posts");
+            for (PostView post : posts) json.writeRawValue(postJsonCache.get(post));
+            json.writeEndArray();
+            json.writeStringField("nextCursor", nextCursor);
+            if (totalItems != null) json.writeNumberField("totalItems", totalItems);
+            json.writeEndObject();
+        }
+    }
+
+    public void writeMessages(HttpServletResponse response, List<MessageView> messages, String nextCursor, long totalItems) throws IOException {
+        try (JsonGenerator json = open(response)) {
+            json.writeStartObject();
+            json.writeArrayFieldStart("messages");
+            for (MessageView message : messages) writeMessage(json, message);
+            json.writeEndArray();
+            json.writeStringField("nextCursor", nextCursor);
+            json.writeNumberField("totalItems", totalItems);
+            json.writeEndObject();
+        }
+    }
+
+    public ResponseEntity<String> json(Object body, HttpStatus status) {
+        try {
+            return ResponseEntity.status(status).contentType(MediaType.APPLICATION_JSON).body(objectMapper.writeValueAsString(body));
+        }
+        catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Reports a failure the way the other endpoints do: status 400 with the message as the body.
+     */
+    public void writeError(HttpServletResponse response, Throwable e) throws IOException {
+        response.setStatus(HttpStatus.BAD_REQUEST.value());
+        response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        if (e.getMessage() != null) response.getWriter().write(e.getMessage());
+    }
+
+    private JsonGenerator open(HttpServletResponse response) throws IOException {
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        return jsonFactory.createGenerator(response.getOutputStream(), JsonEncoding.UTF8);
+    }
+
+    private static void writeMessage(JsonGenerator json, MessageView message) throws IOException {
+        json.writeStartObject();
+        json.writeNumberField("id", message.id());
+        writeDate(json, "dateTime", message.dateTime());
+        json.writeNumberField("fromId", message.fromId());
+        json.writeStringField("fromUsername", message.fromUsername());
+        json.writeNumberField("toId", message.toId());
+        json.writeStringField("toUsername", message.toUsername());
+        json.writeStringField("content", message.content());
+        json.writeEndObject();
+    }
+
+    private static void writeDate(JsonGenerator json, String field, LocalDateTime date) throws IOException {
+        if (date == null) json.writeNullField(field);
+        else json.writeStringField(field, date.toString());
+    }
+}
@@ -1,23 +1,32 @@
 package com.example.demo.controller;
 
 import com.example.demo.data.Message;
-import com.example.demo.data.Post;
+import com.example.demo.data.Notification;
+import com.example.demo.dto.ConversationView;
+import com.example.demo.dto.CursorRequest;
 import com.example.demo.dto.MessageDTO;
+import com.example.demo.dto.MessageView;
+import com.example.demo.dto.PageCursor;
 import com.example.demo.dto.PostDTO;
+import com.example.demo.dto.PostView;
+import com.example.demo.dto.SearchCursor;
+import com.example.demo.dto.SearchPage;
 import com.example.demo.dto.UserDTO;
+import com.example.demo.dto.UserStats;
+import com.example.demo.exception.OverloadedException;
+import com.example.demo.exception.PartialBatchException;
 import com.example.demo.exception.RegistrationException;
 import com.example.demo.service.UserService;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort.Order;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.security.Principal;
 import java.util.*;
 
@@ -25,10 +34,12 @@ import java.util.*;
 public class RESTController {
 
     private final UserService userService;
+    private final PageJsonWriter pageJsonWriter;
 
     @Autowired
-    public RESTController(UserService userService) {
+    public RESTController(UserService userService, PageJsonWriter pageJsonWriter) {
         this.userService = userService;
+        this.pageJsonWriter = pageJsonWriter;
     }
 
     @PostMapping("/register")
@@ -75,8 +86,8 @@ public class RESTController {
 
         try {
             String username = getUsernameFromToken(principal);
-            Message message = userService.sendFriendRequest(username,sendTo);
-            return new ResponseEntity<>(message.toString(),HttpStatus.OK);
+            Notification notification = userService.sendFriendRequest(username,sendTo);
+            return new ResponseEntity<>(notification.toString(),HttpStatus.OK);
         }
         catch (Throwable e){
             return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
@@ -88,8 +99,8 @@ public class RESTController {
 
         try {
             String username = getUsernameFromToken(principal);
-            Message message = userService.acceptFriendRequest(add,username);
-            return new ResponseEntity<>(message.toString(),HttpStatus.OK);
+            Notification notification = userService.acceptFriendRequest(add,username);
+            return new ResponseEntity<>(notification.toString(),HttpStatus.OK);
         }
         catch (Throwable e){
             return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
@@ -101,8 +112,8 @@ public class RESTController {
 
         try {
             String username = getUsernameFromToken(principal);
-            Message message = userService.denyFriendRequest(deny,username);
-            return new ResponseEntity<>(message.toString(),HttpStatus.OK);
+            Notification notification = userService.denyFriendRequest(deny,username);
+            return new ResponseEntity<>(notification.toString(),HttpStatus.OK);
         }
         catch (Throwable e){
             return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
@@ -114,8 +125,8 @@ public class RESTController {
 
         try {
             String username = getUsernameFromToken(principal);
-            Message message = userService.unfriend(remove,username);
-            return new ResponseEntity<>(message.toString(),HttpStatus.OK);
+            Notification notification = userService.unfriend(remove,username);
+            return new ResponseEntity<>(notification.toString(),HttpStatus.OK);
         }
         catch (Throwable e){
             return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
@@ -129,44 +140,62 @@ public class RESTController {
             Message message = userService.sendMessage(username,messageDTO.to,messageDTO.content);
             return new ResponseEntity<>(message.toString(),HttpStatus.OK);
         }
+        catch (OverloadedException e){
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.TOO_MANY_REQUESTS);
+        }
         catch (Throwable e){
             return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
         }
     }
 
     @GetMapping("/post")
-    public ResponseEntity<String> getPosts(Principal principal,
-                                           @RequestParam(required = false) String user,
-                                           @RequestParam(defaultValue = "0") int page,
-                                           @RequestParam(defaultValue = "3") int size,
-                                           @RequestParam(defaultValue = "desc") String sort){
-
+    public void getPosts(Principal principal,
+                         @RequestParam(required = false) String user,
+                         @RequestParam(required = false) String cursor,
+                         @RequestParam(defaultValue = "3") int size,
+                         @RequestParam(defaultValue = "desc") String sort,
+                         HttpServletResponse response) throws IOException {
+
+        Slice<PostView> posts;
+        long totalItems;
         try {
 
             String username = getUsernameFromToken(principal);
 
-            List<Order> orders = new ArrayList<>();
-            orders.add(new Order(getSortDirection(sort), "date"));
+            CursorRequest request = CursorRequest.of(cursor, size, getSortDirection(sort));
+            posts = userService.getPosts(username, user, request);
+            totalItems = userService.countPosts(user == null || user.equals("") ? username : user);
+        }
+        catch (Throwable e){
+            pageJsonWriter.writeError(response, e);
+            return;
+        }
+        pageJsonWriter.writePosts(response, posts.getContent(), nextPostCursor(posts), totalItems);
+    }
 
 
-            Pageable pagingSort = PageRequest.of(page, size, Sort.by(orders));
-            Page<Post> posts = userService.getPosts(username, user, pagingSort);
 
-            Map<String, Object> response = new HashMap<>();
-            response.put("posts", posts.getContent());
-            response.put("currentPage", posts.getNumber());
-            response.put("totalItems", posts.getTotalElements());
-            response.put("totalPages", posts.getTotalPages());
+    @GetMapping("/post/search")
+    public void searchPosts(Principal principal,
+                            @RequestParam String q,
+                            @RequestParam(required = false) String cursor,
+                            @RequestParam(defaultValue = "10") int size,
+                            @RequestParam(defaultValue = "false") boolean subscriptions,
+                            HttpServletResponse response) throws IOException {
+
+        SearchPage page;
+        try {
+            String username = getUsernameFromToken(principal);
 
-            return new ResponseEntity<>(response.toString(),HttpStatus.OK);
+            page = userService.searchPosts(username, q, SearchCursor.decode(cursor), size, subscriptions);
         }
         catch (Throwable e){
-            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+            pageJsonWriter.writeError(response, e);
+            return;
         }
+        pageJsonWriter.writePosts(response, page.posts(), page.next() == null ? null : page.next().encode(), null);
     }
 
-
-
     @PostMapping("/post")
     public ResponseEntity<String> addPost(@RequestBody PostDTO post, Principal principal){
         try {
@@ -179,6 +208,24 @@ public class RESTController {
         }
     }
 
+    @PostMapping("/posts/batch")
+    public ResponseEntity<String> addPosts(@RequestBody List<PostDTO> posts, Principal principal){
+        try {
+            String username = getUsernameFromToken(principal);
+            List<Integer> ids = userService.addPosts(username, posts);
+            return pageJsonWriter.json(ids, HttpStatus.OK);
+        }
+        catch (PartialBatchException e){
+            Map<String, Object> body = new LinkedHashMap<>();
+            body.put("error", e.getMessage());
+            body.put("savedIds", e.getSavedIds());
+            return pageJsonWriter.json(body, HttpStatus.MULTI_STATUS);
+        }
+        catch (Throwable e){
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+
     @DeleteMapping("/post")
     public ResponseEntity<String> removePost(@RequestParam int id){
 
@@ -192,62 +239,99 @@ public class RESTController {
     }
 
     @GetMapping("/user")
-    public ResponseEntity<String> getMessageHistory(Principal principal,
-                                                    @RequestParam String with,
-                                                    @RequestParam(defaultValue = "0") int page,
-                                                    @RequestParam(defaultValue = "5") int size,
-                                                    @RequestParam(defaultValue = "desc") String sort){
-
+    public void getMessageHistory(Principal principal,
+                                  @RequestParam String with,
+                                  @RequestParam(required = false) String cursor,
+                                  @RequestParam(defaultValue = "5") int size,
+                                  @RequestParam(defaultValue = "desc") String sort,
+                                  HttpServletResponse response) throws IOException {
+
+        Slice<MessageView> messages;
+        long totalItems;
         try {
             String username = getUsernameFromToken(principal);
 
-            List<Order> orders = new ArrayList<>();
-            orders.add(new Order(getSortDirection(sort), "dateTime"));
-
-            Pageable pagingSort = PageRequest.of(page, size, Sort.by(orders));
-            Page<Message> messages = userService.getMessageHistory(username, with, pagingSort);
-
-            Map<String, Object> response = new HashMap<>();
-            response.put("messages", messages.getContent());
-            response.put("currentPage", messages.getNumber());
-            response.put("totalItems", messages.getTotalElements());
-            response.put("totalPages", messages.getTotalPages());
-
-            return new ResponseEntity<>(response.toString(),HttpStatus.OK);
+            CursorRequest request = CursorRequest.of(cursor, size, getSortDirection(sort));
+            messages = userService.getMessageHistory(username, with, request);
+            totalItems = userService.countMessages(username, with);
         }
         catch (Throwable e){
-            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+            pageJsonWriter.writeError(response, e);
+            return;
         }
+        pageJsonWriter.writeMessages(response, messages.getContent(), nextMessageCursor(messages), totalItems);
     }
 
     @GetMapping("/feed")
-    public ResponseEntity<String> getFeed(Principal principal,
-                                          @RequestParam(defaultValue = "0") int page,
-                                          @RequestParam(defaultValue = "3") int size,
-                                          @RequestParam(defaultValue = "desc") String sort){
+    public void getFeed(Principal principal,
+                        @RequestParam(required = false) String cursor,
+                        @RequestParam(defaultValue = "3") int size,
+                        @RequestParam(defaultValue = "desc") String sort,
+                        HttpServletResponse response) throws IOException {
+        Slice<PostView> feed;
         try {
             String username = getUsernameFromToken(principal);
 
+            CursorRequest request = CursorRequest.of(cursor, size, getSortDirection(sort));
+            feed = userService.getFeed(username, request);
+        }
+        catch (Throwable e){
+            pageJsonWriter.writeError(response, e);
+            return;
+        }
+        pageJsonWriter.writePosts(response, feed.getContent(), nextPostCursor(feed), null);
+    }
 
-            List<Order> orders = new ArrayList<>();
-            orders.add(new Order(getSortDirection(sort), "date"));
+    @GetMapping("/conversations")
+    public ResponseEntity<String> getConversations(Principal principal,
+                                                   @RequestParam(required = false) String cursor,
+                                                   @RequestParam(defaultValue = "20") int size){
+        try {
+            String username = getUsernameFromToken(principal);
 
-            Pageable pagingSort = PageRequest.of(page, size, Sort.by(orders));
-            Page<Post> feed = userService.getFeed(username, pagingSort);
+            Slice<ConversationView> conversations = userService.getConversations(username, PageCursor.decode(cursor), size);
 
-            Map<String, Object> response = new HashMap<>();
-            response.put("posts", feed.getContent());
-            response.put("currentPage", feed.getNumber());
-            response.put("totalItems", feed.getTotalElements());
-            response.put("totalPages", feed.getTotalPages());
+            Map<String, Object> response = new LinkedHashMap<>();
+            response.put("conversations", conversations.getContent());
+            response.put("nextCursor", nextConversationCursor(conversations));
 
-            return new ResponseEntity<>(response.toString(),HttpStatus.OK);
+            return pageJsonWriter.json(response, HttpStatus.OK);
         }
         catch (Throwable e){
             return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
         }
     }
 
+    @GetMapping("/profile")
+    public ResponseEntity<String> getProfile(Principal principal, @RequestParam(required = false) String user){
+        try {
+            String username = getUsernameFromToken(principal);
+            UserStats stats = userService.getStats(user == null || user.equals("") ? username : user);
+            return pageJsonWriter.json(stats, HttpStatus.OK);
+        }
+        catch (Throwable e){
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    private String nextPostCursor(Slice<PostView> posts) {
+        if (!posts.hasNext() || !posts.hasContent()) return null;
+        PostView last = posts.getContent().get(posts.getNumberOfElements() - 1);
+        return new PageCursor(last.date(), last.id()).encode();
+    }
+
+    private String nextMessageCursor(Slice<MessageView> messages) {
+        if (!messages.hasNext() || !messages.hasContent()) return null;
+        MessageView last = messages.getContent().get(messages.getNumberOfElements() - 1);
+        return new PageCursor(last.dateTime(), last.id()).encode();
+    }
+
+    private String nextConversationCursor(Slice<ConversationView> conversations) {
+        if (!conversations.hasNext() || !conversations.hasContent()) return null;
+        ConversationView last = conversations.getContent().get(conversations.getNumberOfElements() - 1);
+        return new PageCursor(last.lastMessageAt(), last.peerId()).encode();
+    }
+
     private String getUsernameFromToken(Principal principal){
         if (principal==null) throw new BadCredentialsException("Invalid auth token passed");
         return principal.getName();
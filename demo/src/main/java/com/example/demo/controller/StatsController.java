@@ -0,0 +1,33 @@
+package com.example.demo.controller;
+
+import com.example.demo.service.StatsSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+public class StatsController {
+
+    private final List<StatsSource> sources;
+    private final PageJsonWriter pageJsonWriter;
+
+    @Autowired
+    public StatsController(List<StatsSource> sources, PageJsonWriter pageJsonWriter) {
+        this.sources = sources;
+        this.pageJsonWriter = pageJsonWriter;
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<String> getStats() {
+        Map<String, Object> response = new LinkedHashMap<>();
+        for (StatsSource source : sources)
+            response.put(source.statsName(), source.stats());
+        return pageJsonWriter.json(response, HttpStatus.OK);
+    }
+}
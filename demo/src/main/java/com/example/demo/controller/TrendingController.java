@@ -0,0 +1,32 @@
+package com.example.demo.controller;
+
+import com.example.demo.service.trending.TrendingEngine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+public class TrendingController {
+
+    private final TrendingEngine trendingEngine;
+    private final PageJsonWriter pageJsonWriter;
+
+    @Autowired
+    public TrendingController(TrendingEngine trendingEngine, PageJsonWriter pageJsonWriter) {
+        this.trendingEngine = trendingEngine;
+        this.pageJsonWriter = pageJsonWriter;
+    }
+
+    @GetMapping("/trending")
+    public ResponseEntity<String> getTrending(@RequestParam(defaultValue = "24h") String window) {
+        try {
+            return pageJsonWriter.json(trendingEngine.get(window), HttpStatus.OK);
+        }
+        catch (Throwable e) {
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.demo.data;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * One row of a user's inbox: the latest message exchanged with a peer and how many of the peer's messages
+ * the owner has not read yet. Maintained on write by {@code sendMessage}.
+ */
+@Data
+@Entity
+@NoArgsConstructor
+@IdClass(ConversationSummary.Key.class)
+@Table(indexes = @Index(name = "conversation_summary_inbox_idx", columnList = "owner_id, last_message_at, peer_id"))
+public class ConversationSummary {
+
+    public static final int PREVIEW_LENGTH = 200;
+
+    @Id
+    @Column(name = "owner_id")
+    private int ownerId;
+
+    @Id
+    @Column(name = "peer_id")
+    private int peerId;
+
+    @Column(nullable = false)
+    private String peerUsername;
+
+    private int lastMessageId;
+
+    @Column(name = "last_message_at", nullable = false)
+    private LocalDateTime lastMessageAt;
+
+    private int lastSenderId;
+
+    @Column(length = PREVIEW_LENGTH)
+    private String lastMessagePreview;
+
+    private int unread;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private int ownerId;
+        private int peerId;
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.demo.data;
+
+public enum CounterType {
+    POSTS,
+    SUBSCRIBERS,
+    SUBSCRIPTIONS,
+    MESSAGES
+}
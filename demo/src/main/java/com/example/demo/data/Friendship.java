@@ -0,0 +1,39 @@
+package com.example.demo.data;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Friendship between two users, stored once with the smaller id first.
+ */
+@Data
+@Entity
+@NoArgsConstructor
+@IdClass(Friendship.Key.class)
+@Table(indexes = @Index(name = "friendship_high_idx", columnList = "high_id, low_id"))
+public class Friendship {
+
+    @Id
+    @Column(name = "low_id")
+    private int lowId;
+
+    @Id
+    @Column(name = "high_id")
+    private int highId;
+
+    @Column(nullable = false)
+    private LocalDateTime since;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private int lowId;
+        private int highId;
+    }
+}
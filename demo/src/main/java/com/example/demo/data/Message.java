@@ -10,16 +10,18 @@ import java.time.LocalDateTime;
 @Data
 @Entity
 @NoArgsConstructor
+@Table(indexes = @Index(name = "message_conversation_idx", columnList = "conversation_id, date_time, id"))
 public class Message {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "message_seq")
+    @SequenceGenerator(name = "message_seq", sequenceName = "message_seq", allocationSize = 50)
     private int id;
 
     @ManyToOne(fetch = FetchType.EAGER)
     private User from;
 
-    @Column(nullable = false)
+    @Column(name = "date_time", nullable = false)
     private LocalDateTime dateTime;
 
     @ManyToOne(fetch = FetchType.EAGER)
@@ -28,11 +30,22 @@ public class Message {
 
     private MessageType type;
 
+    @Column(name = "conversation_id", nullable = false)
+    private long conversationId;
+
     public Message(User from, User to, LocalDateTime dateTime, String content, MessageType type) {
         this.from = from;
         this.dateTime = dateTime;
         this.to = to;
         this.content = content;
         this.type = type;
+        this.conversationId = conversationId(from.getId(), to.getId());
+    }
+
+    /**
+     * Identifier of the conversation between two users, independent of who sent the message.
+     */
+    public static long conversationId(int userId1, int userId2) {
+        return ((long) Math.min(userId1, userId2) << 32) | Math.max(userId1, userId2);
     }
 }
@@ -1,9 +1,5 @@
 package com.example.demo.data;
 
 public enum MessageType {
-    MESSAGE,
-    FRIEND_REQUEST,
-    FRIEND_APPROVE,
-    FRIEND_DENY,
-    FRIEND_REMOVE
+    MESSAGE
 }
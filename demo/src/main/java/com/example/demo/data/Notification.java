@@ -0,0 +1,48 @@
+package com.example.demo.data;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Friendship event addressed to one user. Append-only: rows are never updated, only removed
+ * by retention and compaction. Clients page and poll by {@code seq}, which unlike the pooled id
+ * follows commit order within a recipient, so a poller that has seen seq N never misses a later commit below it.
+ */
+@Data
+@Entity
+@NoArgsConstructor
+@Table(indexes = @Index(name = "notification_recipient_idx", columnList = "recipient_id, seq"))
+public class Notification {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "notification_seq")
+    @SequenceGenerator(name = "notification_seq", sequenceName = "notification_seq", allocationSize = 50)
+    private int id;
+
+    @Column(name = "recipient_id", nullable = false)
+    private int recipientId;
+
+    @Column(nullable = false)
+    private long seq;
+
+    @Column(nullable = false)
+    private int actorId;
+
+    @Column(nullable = false)
+    @Enumerated(EnumType.STRING)
+    private NotificationType type;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    public Notification(int recipientId, long seq, int actorId, NotificationType type, LocalDateTime createdAt) {
+        this.recipientId = recipientId;
+        this.seq = seq;
+        this.actorId = actorId;
+        this.type = type;
+        this.createdAt = createdAt;
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.demo.data;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Last {@link Notification#getSeq() seq} handed out for a recipient. The row stays locked by the publishing
+ * transaction until it commits, so a recipient's notifications become visible in seq order.
+ */
+@Data
+@Entity
+@NoArgsConstructor
+public class NotificationSequence {
+
+    @Id
+    private int recipientId;
+
+    private long lastSeq;
+}
@@ -0,0 +1,8 @@
+package com.example.demo.data;
+
+public enum NotificationType {
+    FRIEND_REQUEST,
+    FRIEND_APPROVE,
+    FRIEND_DENY,
+    FRIEND_REMOVE
+}
@@ -0,0 +1,32 @@
+package com.example.demo.data;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+@Data
+@Entity
+@NoArgsConstructor
+@IdClass(StatCounter.Key.class)
+public class StatCounter {
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    private CounterType type;
+
+    @Id
+    private long ownerId;
+
+    private long value;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private CounterType type;
+        private long ownerId;
+    }
+}
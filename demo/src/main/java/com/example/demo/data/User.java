@@ -19,7 +19,8 @@ import java.util.Set;
 public class User implements UserDetails {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_seq")
+    @SequenceGenerator(name = "user_seq", sequenceName = "user_seq", allocationSize = 50)
     @Column(name = "user_id")
     private int id;
 
@@ -58,19 +59,10 @@ public class User implements UserDetails {
     @ManyToMany(cascade = CascadeType.ALL)
     @JoinTable(name="UserSubs",
             joinColumns={@JoinColumn(name="FollowerId")},
-            inverseJoinColumns={@JoinColumn(name="OwnerId")})
+            inverseJoinColumns={@JoinColumn(name="OwnerId")},
+            indexes = @Index(name = "user_subs_owner_idx", columnList = "owner_id, follower_id"))
     private Set<User> subscribedTo = new HashSet<>();
 
-
-    @ManyToMany(mappedBy = "friendTo", cascade = CascadeType.ALL)
-    private Set<User> friendsWith = new HashSet<>();
-
-    @ManyToMany(cascade = CascadeType.ALL)
-    @JoinTable(name="UserFriends",
-            joinColumns={@JoinColumn(name="FollowerId")},
-            inverseJoinColumns={@JoinColumn(name="OwnerId")})
-    private Set<User> friendTo = new HashSet<>();
-
     @OneToMany(fetch = FetchType.LAZY, mappedBy = "from", cascade = CascadeType.ALL)
     private Set<Message> messages = new HashSet<>();
 
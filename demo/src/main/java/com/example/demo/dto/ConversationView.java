@@ -0,0 +1,10 @@
+package com.example.demo.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-side view of one inbox row: the peer, a preview of the latest message and how many of the peer's
+ * messages are still unread.
+ */
+public record ConversationView(int peerId, String peer, String preview, LocalDateTime lastMessageAt, int unread) {
+}
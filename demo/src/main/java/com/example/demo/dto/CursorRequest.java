@@ -0,0 +1,45 @@
+package com.example.demo.dto;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+/**
+ * Keyset counterpart of {@link Pageable}: rows strictly after {@code after} in {@code direction} order, at most {@code size} of them.
+ */
+public record CursorRequest(PageCursor after, int size, Sort.Direction direction) {
+
+    public static final int MAX_SIZE = 100;
+
+    public CursorRequest {
+        if (size < 1) throw new IllegalArgumentException("Page size must not be less than one");
+        if (size > MAX_SIZE) throw new IllegalArgumentException("Page size must not be greater than " + MAX_SIZE);
+        if (direction == null) direction = Sort.Direction.DESC;
+    }
+
+    public static CursorRequest of(String cursor, int size, Sort.Direction direction) throws IllegalArgumentException {
+        return new CursorRequest(PageCursor.decode(cursor), size, direction);
+    }
+
+    public boolean isFirstPage() {
+        return after == null;
+    }
+
+    public boolean isNewestFirst() {
+        return direction.isDescending();
+    }
+
+    /**
+     * Pageable for the first page, ordered by {@code dateProperty} and id in the requested direction.
+     */
+    public Pageable firstPage(String dateProperty) {
+        return PageRequest.of(0, size, Sort.by(direction, dateProperty, "id"));
+    }
+
+    /**
+     * Pageable for keyset queries, which carry their own ORDER BY.
+     */
+    public Pageable nextPage() {
+        return PageRequest.ofSize(size);
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.demo.dto;
+
+import com.example.demo.data.Message;
+
+import java.time.LocalDateTime;
+
+/**
+ * A chat message as pushed to connected clients.
+ */
+public record MessageEvent(int id, String from, String to, String content, LocalDateTime dateTime) {
+
+    public static MessageEvent of(Message message) {
+        return new MessageEvent(message.getId(), message.getFrom().getUsername(), message.getTo().getUsername(),
+                message.getContent(), message.getDateTime());
+    }
+}
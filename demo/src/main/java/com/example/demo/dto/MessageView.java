@@ -0,0 +1,9 @@
+package com.example.demo.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-side view of a message with sender and recipient ids and usernames, queried without loading entities.
+ */
+public record MessageView(int id, LocalDateTime dateTime, int fromId, String fromUsername, int toId, String toUsername, String content) {
+}
@@ -0,0 +1,9 @@
+package com.example.demo.dto;
+
+import java.util.List;
+
+/**
+ * Number of users two people have in common and a preview of them.
+ */
+public record MutualUsers(int count, List<UserRef> users) {
+}
@@ -0,0 +1,8 @@
+package com.example.demo.dto;
+
+import com.example.demo.data.NotificationType;
+
+import java.time.LocalDateTime;
+
+public record NotificationView(int id, long seq, NotificationType type, String from, LocalDateTime createdAt) {
+}
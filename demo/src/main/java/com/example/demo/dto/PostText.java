@@ -0,0 +1,7 @@
+package com.example.demo.dto;
+
+/**
+ * The searchable part of a post, read without loading the entity.
+ */
+public record PostText(int id, int authorId, String headline, String content) {
+}
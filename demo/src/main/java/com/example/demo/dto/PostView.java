@@ -0,0 +1,9 @@
+package com.example.demo.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-side view of a post with its author's id and username, queried without loading entities.
+ */
+public record PostView(int id, LocalDateTime date, String headline, String content, int authorId, String authorUsername) {
+}
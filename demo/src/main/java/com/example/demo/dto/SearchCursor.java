@@ -0,0 +1,28 @@
+package com.example.demo.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque position in a ranked result list: the (score, id) of the last hit returned on the previous page.
+ */
+public record SearchCursor(float score, int id) {
+
+    public String encode() {
+        String raw = Integer.toHexString(Float.floatToIntBits(score)) + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static SearchCursor decode(String cursor) throws IllegalArgumentException {
+        if (cursor == null || cursor.equals("")) return null;
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            return new SearchCursor(Float.intBitsToFloat(Integer.parseUnsignedInt(raw.substring(0, separator), 16)),
+                    Integer.parseInt(raw.substring(separator + 1)));
+        }
+        catch (IndexOutOfBoundsException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+}
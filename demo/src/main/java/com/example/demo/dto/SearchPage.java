@@ -0,0 +1,9 @@
+package com.example.demo.dto;
+
+import java.util.List;
+
+/**
+ * Posts in relevance order; {@code next} is {@code null} on the last page.
+ */
+public record SearchPage(List<PostView> posts, SearchCursor next) {
+}
@@ -0,0 +1,7 @@
+package com.example.demo.dto;
+
+/**
+ * A user the reader may know, with the counts that ranked them.
+ */
+public record Suggestion(int id, String username, int mutualFriends, int mutualSubscriptions) {
+}
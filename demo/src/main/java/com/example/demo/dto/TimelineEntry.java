@@ -0,0 +1,20 @@
+package com.example.demo.dto;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+
+public record TimelineEntry(int postId, int authorId, LocalDateTime date) {
+
+    public static final Comparator<TimelineEntry> NEWEST_FIRST = Comparator
+            .comparing(TimelineEntry::date)
+            .thenComparingInt(TimelineEntry::postId)
+            .reversed();
+
+    /**
+     * @return whether this entry comes after the cursor in newest-first order
+     */
+    public boolean isOlderThan(PageCursor cursor) {
+        int byDate = date.compareTo(cursor.date());
+        return byDate < 0 || (byDate == 0 && postId < cursor.id());
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.demo.dto;
+
+/**
+ * A trending post (named by its headline) or author (named by username) with its decayed score.
+ */
+public record Trend(int id, String name, double score) {
+}
@@ -0,0 +1,7 @@
+package com.example.demo.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public record TrendingSnapshot(String window, LocalDateTime computedAt, List<Trend> posts, List<Trend> authors) {
+}
@@ -0,0 +1,4 @@
+package com.example.demo.dto;
+
+public record UserStats(String username, long posts, long subscribers, long subscriptions) {
+}
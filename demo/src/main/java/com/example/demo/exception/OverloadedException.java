@@ -0,0 +1,12 @@
+package com.example.demo.exception;
+
+public class OverloadedException extends RuntimeException{
+
+    public OverloadedException(String msg) {
+        super(msg);
+    }
+
+    public OverloadedException(String msg, Throwable cause) {
+        super(msg, cause);
+    }
+}
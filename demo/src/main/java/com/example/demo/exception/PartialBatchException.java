@@ -0,0 +1,20 @@
+package com.example.demo.exception;
+
+import java.util.List;
+
+/**
+ * A batch write failed after some of its chunks were already committed.
+ */
+public class PartialBatchException extends RuntimeException{
+
+    private final List<Integer> savedIds;
+
+    public PartialBatchException(String msg, List<Integer> savedIds, Throwable cause) {
+        super(msg, cause);
+        this.savedIds = List.copyOf(savedIds);
+    }
+
+    public List<Integer> getSavedIds() {
+        return savedIds;
+    }
+}
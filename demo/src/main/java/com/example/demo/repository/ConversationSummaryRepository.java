@@ -0,0 +1,50 @@
+package com.example.demo.repository;
+
+import com.example.demo.data.ConversationSummary;
+import com.example.demo.dto.ConversationView;
+import jakarta.transaction.Transactional;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface ConversationSummaryRepository extends JpaRepository<ConversationSummary, ConversationSummary.Key> {
+
+    @Query("select new com.example.demo.dto.ConversationView(c.peerId, c.peerUsername, c.lastMessagePreview, c.lastMessageAt, c.unread) " +
+            "from ConversationSummary c where c.ownerId = :ownerId " +
+            "order by c.lastMessageAt desc, c.peerId desc")
+    Slice<ConversationView> findViewsByOwnerId(int ownerId, Pageable pageable);
+
+    @Query("select new com.example.demo.dto.ConversationView(c.peerId, c.peerUsername, c.lastMessagePreview, c.lastMessageAt, c.unread) " +
+            "from ConversationSummary c where c.ownerId = :ownerId " +
+            "and (c.lastMessageAt < :lastMessageAt or (c.lastMessageAt = :lastMessageAt and c.peerId < :peerId)) " +
+            "order by c.lastMessageAt desc, c.peerId desc")
+    Slice<ConversationView> findViewsByOwnerIdBefore(int ownerId, LocalDateTime lastMessageAt, int peerId, Pageable pageable);
+
+    /**
+     * Records a message in the owner's summary of the conversation with the peer. Messages that arrive
+     * out of order still count as unread but do not replace a newer last message.
+     */
+    @Modifying
+    @Query(nativeQuery = true, value = "insert into conversation_summary " +
+            "(owner_id, peer_id, peer_username, last_message_id, last_message_at, last_sender_id, last_message_preview, unread) " +
+            "values (:ownerId, :peerId, :peerUsername, :messageId, :sentAt, :senderId, :preview, :unread) " +
+            "on conflict (owner_id, peer_id) do update set " +
+            "last_message_id = case when excluded.last_message_at >= conversation_summary.last_message_at then excluded.last_message_id else conversation_summary.last_message_id end, " +
+            "last_sender_id = case when excluded.last_message_at >= conversation_summary.last_message_at then excluded.last_sender_id else conversation_summary.last_sender_id end, " +
+            "last_message_preview = case when excluded.last_message_at >= conversation_summary.last_message_at then excluded.last_message_preview else conversation_summary.last_message_preview end, " +
+            "last_message_at = greatest(excluded.last_message_at, conversation_summary.last_message_at), " +
+            "unread = conversation_summary.unread + excluded.unread")
+    void record(int ownerId, int peerId, String peerUsername, int messageId, LocalDateTime sentAt, int senderId, String preview, int unread);
+
+    @Transactional
+    @Modifying
+    @Query(nativeQuery = true, value = "update conversation_summary set unread = 0 " +
+            "where owner_id = :ownerId and peer_id = :peerId and unread > 0")
+    void markRead(int ownerId, int peerId);
+}
@@ -0,0 +1,32 @@
+package com.example.demo.repository;
+
+import com.example.demo.data.Friendship;
+import jakarta.transaction.Transactional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface FriendshipRepository extends JpaRepository<Friendship, Friendship.Key> {
+
+    /**
+     * @return 1 if the users became friends, 0 if they already were
+     */
+    @Transactional
+    @Modifying
+    @Query(nativeQuery = true, value = "insert into friendship (low_id, high_id, since) " +
+            "values (least(:userId, :otherId), greatest(:userId, :otherId), :since) on conflict do nothing")
+    int befriend(int userId, int otherId, LocalDateTime since);
+
+    /**
+     * @return 1 if the friendship was removed, 0 if the users were not friends
+     */
+    @Transactional
+    @Modifying
+    @Query(nativeQuery = true, value = "delete from friendship " +
+            "where low_id = least(:userId, :otherId) and high_id = greatest(:userId, :otherId)")
+    int unfriend(int userId, int otherId);
+}
@@ -1,24 +1,28 @@
 package com.example.demo.repository;
 
 import com.example.demo.data.Message;
-import com.example.demo.data.MessageType;
-import com.example.demo.data.User;
-import org.springframework.data.domain.Page;
+import com.example.demo.dto.MessageView;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
-import java.util.Set;
+import java.time.LocalDateTime;
 
 @Repository
 public interface MessageRepository extends JpaRepository<Message, Integer> {
-    Set<Message> findAllByFromAndTo(User from, User to);
+    @Query("select new com.example.demo.dto.MessageView(m.id, m.dateTime, f.id, f.username, t.id, t.username, m.content) " +
+            "from Message m join m.from f join m.to t where m.conversationId = :conversationId")
+    Slice<MessageView> findViewsByConversationId(long conversationId, Pageable pageable);
 
-    Page<Message> findAllByFromInAndToIn(Set<User> user1, Set<User> user2, Pageable pageable);
+    @Query("select new com.example.demo.dto.MessageView(m.id, m.dateTime, f.id, f.username, t.id, t.username, m.content) " +
+            "from Message m join m.from f join m.to t where m.conversationId = :conversationId " +
+            "and (m.dateTime < :dateTime or (m.dateTime = :dateTime and m.id < :id)) order by m.dateTime desc, m.id desc")
+    Slice<MessageView> findViewsByConversationIdBefore(long conversationId, LocalDateTime dateTime, int id, Pageable pageable);
 
-    default Page<Message> findAllByFromInAndToIn(Set<User> users, Pageable pageable){
-        return findAllByFromInAndToIn(users, users, pageable);
-    }
-    Message findFirstByFromAndToAndTypeOrderByDateTimeDesc(User from, User to, MessageType type);
+    @Query("select new com.example.demo.dto.MessageView(m.id, m.dateTime, f.id, f.username, t.id, t.username, m.content) " +
+            "from Message m join m.from f join m.to t where m.conversationId = :conversationId " +
+            "and (m.dateTime > :dateTime or (m.dateTime = :dateTime and m.id > :id)) order by m.dateTime asc, m.id asc")
+    Slice<MessageView> findViewsByConversationIdAfter(long conversationId, LocalDateTime dateTime, int id, Pageable pageable);
 }
@@ -0,0 +1,39 @@
+package com.example.demo.repository;
+
+import com.example.demo.data.Notification;
+import jakarta.transaction.Transactional;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface NotificationRepository extends JpaRepository<Notification, Integer> {
+
+    Slice<Notification> findByRecipientIdOrderBySeqDesc(int recipientId, Pageable pageable);
+
+    Slice<Notification> findByRecipientIdAndSeqLessThanOrderBySeqDesc(int recipientId, long seq, Pageable pageable);
+
+    List<Notification> findByRecipientIdAndSeqGreaterThanOrderBySeqAsc(int recipientId, long seq, Pageable pageable);
+
+    @Transactional
+    @Modifying
+    @Query(nativeQuery = true, value = "delete from notification where id in " +
+            "(select id from notification where created_at < :cutoff limit :limit)")
+    int deleteOlderThan(LocalDateTime cutoff, int limit);
+
+    /**
+     * Drops notifications superseded by a newer one of the same type from the same user, e.g. repeated friend requests.
+     */
+    @Transactional
+    @Modifying
+    @Query(nativeQuery = true, value = "delete from notification n using notification newer " +
+            "where newer.recipient_id = n.recipient_id and newer.actor_id = n.actor_id " +
+            "and newer.type = n.type and newer.seq > n.seq")
+    int deleteSuperseded();
+}
@@ -0,0 +1,19 @@
+package com.example.demo.repository;
+
+import com.example.demo.data.NotificationSequence;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface NotificationSequenceRepository extends JpaRepository<NotificationSequence, Integer> {
+
+    /**
+     * Takes the recipient's next seq. Must run in the transaction that inserts the notification: the row lock
+     * makes concurrent publishers to the same recipient wait until this one commits or rolls back.
+     */
+    @Query(nativeQuery = true, value = "insert into notification_sequence (recipient_id, last_seq) values (:recipientId, 1) " +
+            "on conflict (recipient_id) do update set last_seq = notification_sequence.last_seq + 1 " +
+            "returning last_seq")
+    long next(int recipientId);
+}
@@ -1,19 +1,59 @@
 package com.example.demo.repository;
 
 import com.example.demo.data.Post;
-import com.example.demo.data.User;
-import org.springframework.data.domain.Page;
+import com.example.demo.dto.PostText;
+import com.example.demo.dto.PostView;
+import com.example.demo.dto.TimelineEntry;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
-import java.util.Set;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 
 @Repository
 public interface PostRepository extends JpaRepository<Post, Integer> {
-    Page<Post> findAllByAuthorOrderByDateDesc(User author, Pageable pageable);
 
-    Post findFirstByAuthorOrderByDateDesc(User author);
+    @Query("select new com.example.demo.dto.PostView(p.id, p.date, p.headline, p.content, a.id, a.username) " +
+            "from Post p join p.author a where a.id = :authorId")
+    Slice<PostView> findViewsByAuthorId(int authorId, Pageable pageable);
 
-    Page<Post> findAllByAuthorIn(Set<User> authors, Pageable pageable);
+    @Query("select new com.example.demo.dto.PostView(p.id, p.date, p.headline, p.content, a.id, a.username) " +
+            "from Post p join p.author a where a.id = :authorId " +
+            "and (p.date < :date or (p.date = :date and p.id < :id)) order by p.date desc, p.id desc")
+    Slice<PostView> findViewsByAuthorIdBefore(int authorId, LocalDateTime date, int id, Pageable pageable);
+
+    @Query("select new com.example.demo.dto.PostView(p.id, p.date, p.headline, p.content, a.id, a.username) " +
+            "from Post p join p.author a where a.id = :authorId " +
+            "and (p.date > :date or (p.date = :date and p.id > :id)) order by p.date asc, p.id asc")
+    Slice<PostView> findViewsByAuthorIdAfter(int authorId, LocalDateTime date, int id, Pageable pageable);
+
+    @Query("select new com.example.demo.dto.PostView(p.id, p.date, p.headline, p.content, a.id, a.username) " +
+            "from Post p join p.author a where a.id in :authorIds")
+    Slice<PostView> findViewsByAuthorIdIn(Collection<Integer> authorIds, Pageable pageable);
+
+    @Query("select new com.example.demo.dto.PostView(p.id, p.date, p.headline, p.content, a.id, a.username) " +
+            "from Post p join p.author a where a.id in :authorIds " +
+            "and (p.date < :date or (p.date = :date and p.id < :id)) order by p.date desc, p.id desc")
+    Slice<PostView> findViewsByAuthorIdInBefore(Collection<Integer> authorIds, LocalDateTime date, int id, Pageable pageable);
+
+    @Query("select new com.example.demo.dto.PostView(p.id, p.date, p.headline, p.content, a.id, a.username) " +
+            "from Post p join p.author a where a.id in :authorIds " +
+            "and (p.date > :date or (p.date = :date and p.id > :id)) order by p.date asc, p.id asc")
+    Slice<PostView> findViewsByAuthorIdInAfter(Collection<Integer> authorIds, LocalDateTime date, int id, Pageable pageable);
+
+    @Query("select new com.example.demo.dto.PostView(p.id, p.date, p.headline, p.content, a.id, a.username) " +
+            "from Post p join p.author a where p.id in :ids")
+    List<PostView> findViewsByIdIn(Collection<Integer> ids);
+
+    @Query("select new com.example.demo.dto.TimelineEntry(p.id, p.author.id, p.date) from Post p " +
+            "where p.author.id in :authorIds order by p.date desc, p.id desc")
+    List<TimelineEntry> findTimelineEntries(Collection<Integer> authorIds, Pageable pageable);
+
+    @Query("select new com.example.demo.dto.PostText(p.id, p.author.id, p.headline, p.content) from Post p " +
+            "where p.id > :afterId order by p.id asc")
+    List<PostText> findTextsAfter(int afterId, Pageable pageable);
 }
@@ -0,0 +1,46 @@
+package com.example.demo.repository;
+
+import com.example.demo.data.StatCounter;
+import jakarta.transaction.Transactional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface StatCounterRepository extends JpaRepository<StatCounter, StatCounter.Key> {
+
+    @Transactional
+    @Modifying
+    @Query(nativeQuery = true, value = "insert into stat_counter (type, owner_id, value) values (:type, :ownerId, :delta) " +
+            "on conflict (type, owner_id) do update set value = stat_counter.value + excluded.value")
+    void add(String type, long ownerId, long delta);
+
+    @Modifying
+    @Query(nativeQuery = true, value = "update stat_counter set value = 0 where type = :type")
+    void reset(String type);
+
+    @Modifying
+    @Query(nativeQuery = true, value = "insert into stat_counter (type, owner_id, value) " +
+            "select 'POSTS', user_id, count(*) from post group by user_id " +
+            "on conflict (type, owner_id) do update set value = excluded.value")
+    void recountPosts();
+
+    @Modifying
+    @Query(nativeQuery = true, value = "insert into stat_counter (type, owner_id, value) " +
+            "select 'SUBSCRIBERS', owner_id, count(*) from user_subs group by owner_id " +
+            "on conflict (type, owner_id) do update set value = excluded.value")
+    void recountSubscribers();
+
+    @Modifying
+    @Query(nativeQuery = true, value = "insert into stat_counter (type, owner_id, value) " +
+            "select 'SUBSCRIPTIONS', follower_id, count(*) from user_subs group by follower_id " +
+            "on conflict (type, owner_id) do update set value = excluded.value")
+    void recountSubscriptions();
+
+    @Modifying
+    @Query(nativeQuery = true, value = "insert into stat_counter (type, owner_id, value) " +
+            "select 'MESSAGES', conversation_id, count(*) from message group by conversation_id " +
+            "on conflict (type, owner_id) do update set value = excluded.value")
+    void recountMessages();
+}
@@ -1,9 +1,17 @@
 package com.example.demo.repository;
 
 import com.example.demo.data.User;
+import com.example.demo.dto.UserRef;
+import jakarta.transaction.Transactional;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 
@@ -15,4 +23,35 @@ public interface UserRepository extends CrudRepository<User, Integer> {
     Optional<User> findByEmail(String email);
 
     Optional<User> findByUsername(String username);
+
+    @Query("select u.id from User u where u.username = :username")
+    Optional<Integer> findIdByUsername(String username);
+
+    @Query("select new com.example.demo.dto.UserRef(u.id, u.username) from User u where u.id in :ids")
+    List<UserRef> findRefsByIdIn(Collection<Integer> ids);
+
+    /**
+     * @return 1 if the subscription was added, 0 if it already existed
+     */
+    @Transactional
+    @Modifying
+    @Query(nativeQuery = true, value = "insert into user_subs (follower_id, owner_id) values (:subscriberId, :ownerId) " +
+            "on conflict do nothing")
+    int subscribe(int subscriberId, int ownerId);
+
+    /**
+     * @return 1 if the subscription was removed, 0 if there was none
+     */
+    @Transactional
+    @Modifying
+    @Query(nativeQuery = true, value = "delete from user_subs where follower_id = :subscriberId and owner_id = :ownerId")
+    int unsubscribe(int subscriberId, int ownerId);
+
+    @Query("select new com.example.demo.dto.UserRef(s.id, s.username) from User u join u.subscribers s " +
+            "where u.id = :userId and s.id > :afterId order by s.id")
+    Slice<UserRef> findSubscriberRefs(int userId, int afterId, Pageable pageable);
+
+    @Query("select new com.example.demo.dto.UserRef(s.id, s.username) from User u join u.subscribedTo s " +
+            "where u.id = :userId and s.id > :afterId order by s.id")
+    Slice<UserRef> findSubscriptionRefs(int userId, int afterId, Pageable pageable);
 }
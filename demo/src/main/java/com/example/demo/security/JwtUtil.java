@@ -1,21 +1,72 @@
 package com.example.demo.security;
 
 import com.example.demo.data.User;
+import com.example.demo.service.StatsSource;
+import com.example.demo.service.cache.LruCache;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import javax.crypto.SecretKey;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
 
+/**
+ * Issues and verifies access tokens. The signing key and parser are built once; tokens that passed
+ * verification are remembered by their SHA-256 digest until they expire, so a client repeating the same
+ * token costs one hash instead of an HMAC check and a JSON parse per request.
+ */
 @Component
-public class JwtUtil {
-    @Value("${jwt.secret}")
-    private String secretKey;
+public class JwtUtil implements StatsSource {
+
+    private static final Logger log = LoggerFactory.getLogger(JwtUtil.class);
+
+    private record Digest(long a, long b, long c, long d) {
+    }
+
+    private record Verified(String username, long expiresAt) {
+    }
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        }
+        catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    private final SecretKey key;
+    private final JwtParser parser;
+    private final LruCache<Digest, Verified> verified;
+
+    private final LongAdder verifications = new LongAdder();
+    private final LongAdder rejections = new LongAdder();
+
+    @Autowired
+    public JwtUtil(@Value("${jwt.secret}") String secretKey,
+                   @Value("${jwt.cache.max-entries:100000}") int cacheSize) {
+        this.key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secretKey));
+        this.parser = Jwts.parserBuilder().setSigningKey(key).build();
+        this.verified = new LruCache<>(cacheSize);
+    }
 
     public String generateJwtToken(User user) {
         Instant accessExpiration = LocalDateTime.now().plusDays(1).atZone(ZoneId.systemDefault()).toInstant();
@@ -23,33 +74,54 @@ public class JwtUtil {
                 .setSubject(user.getUsername())
                 .setIssuedAt(new Date())
                 .setExpiration(Date.from(accessExpiration))
-                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(secretKey)))
+                .signWith(key)
                 .claim("role", user.getAuthorities())
                 .compact();
     }
 
-    public boolean validateToken(String token) {
+    /**
+     * @return the subject of {@code token}, or {@code null} if it is malformed, badly signed or expired
+     */
+    public String getVerifiedUsername(String token) {
+        Digest digest = digest(token);
+        Verified cached = verified.get(digest);
+        if (cached != null) {
+            if (System.currentTimeMillis() < cached.expiresAt()) return cached.username();
+            verified.remove(digest);
+            return null;
+        }
+
+        Claims claims;
         try {
-            Jwts
-                    .parserBuilder()
-                    .setSigningKey(Keys.hmacShaKeyFor(Decoders.BASE64.decode(secretKey)))
-                    .build()
-                    .parseClaimsJws(token);
-            return true;
-        } catch (Exception ex) {
-            ex.printStackTrace();
+            verifications.increment();
+            claims = parser.parseClaimsJws(token).getBody();
         }
-        return false;
+        catch (JwtException | IllegalArgumentException e) {
+            rejections.increment();
+            log.debug("Rejected token: {}", e.getMessage());
+            return null;
+        }
+
+        if (claims.getExpiration() != null)
+            verified.put(digest, new Verified(claims.getSubject(), claims.getExpiration().getTime()));
+        return claims.getSubject();
     }
 
-    public String getUsernameFromToken(String token) {
-        return Jwts
-                .parserBuilder()
-                .setSigningKey(Keys.hmacShaKeyFor(Decoders.BASE64.decode(secretKey)))
-                .build()
-                .parseClaimsJws(token)
-                .getBody()
-                .getSubject();
+    @Override
+    public String statsName() {
+        return "jwt";
     }
 
+    @Override
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>(verified.stats());
+        stats.put("verifications", verifications.sum());
+        stats.put("rejections", rejections.sum());
+        return stats;
+    }
+
+    private static Digest digest(String token) {
+        ByteBuffer hash = ByteBuffer.wrap(SHA_256.get().digest(token.getBytes(StandardCharsets.UTF_8)));
+        return new Digest(hash.getLong(), hash.getLong(), hash.getLong(), hash.getLong());
+    }
 }
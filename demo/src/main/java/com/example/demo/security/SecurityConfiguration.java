@@ -2,6 +2,7 @@ package com.example.demo.security;
 
 import com.example.demo.security.filter.JwtFilter;
 import com.example.demo.service.UserService;
+import jakarta.servlet.DispatcherType;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
@@ -45,6 +46,8 @@ public class SecurityConfiguration {
         http
                 .authorizeHttpRequests(authorize->
                         authorize
+                                // Async dispatches of an already authorized event stream carry no token
+                                .dispatcherTypeMatchers(DispatcherType.ASYNC, DispatcherType.ERROR).permitAll()
                                 .requestMatchers("/register").permitAll()
                                 .requestMatchers("/login").permitAll()
                                 .anyRequest().authenticated())
@@ -43,8 +43,8 @@ public class JwtFilter extends OncePerRequestFilter {
             return;
         }
 
-        final String token = header.split(" ")[1].trim();
-        if (!jwtUtil.validateToken(token)) {
+        final String username = jwtUtil.getVerifiedUsername(header.substring("Bearer ".length()).trim());
+        if (username == null) {
             chain.doFilter(request, response);
             return;
         }
@@ -52,7 +52,7 @@ public class JwtFilter extends OncePerRequestFilter {
         try {
 
         UserDetails userDetails = userService
-                .loadUserByUsername(jwtUtil.getUsernameFromToken(token));
+                .loadUserByUsername(username);
 
         UsernamePasswordAuthenticationToken
                 authentication = new UsernamePasswordAuthenticationToken(
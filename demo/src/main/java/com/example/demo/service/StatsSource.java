@@ -0,0 +1,13 @@
+package com.example.demo.service;
+
+import java.util.Map;
+
+/**
+ * Component that reports runtime counters on {@code GET /stats}.
+ */
+public interface StatsSource {
+
+    String statsName();
+
+    Map<String, Object> stats();
+}
@@ -1,11 +1,22 @@
 package com.example.demo.service;
 
 import com.example.demo.data.Message;
+import com.example.demo.data.Notification;
 import com.example.demo.data.Post;
 import com.example.demo.data.User;
+import com.example.demo.dto.ConversationView;
+import com.example.demo.dto.CursorRequest;
+import com.example.demo.dto.MessageView;
+import com.example.demo.dto.MutualUsers;
+import com.example.demo.dto.PageCursor;
+import com.example.demo.dto.PostDTO;
+import com.example.demo.dto.PostView;
+import com.example.demo.dto.SearchCursor;
+import com.example.demo.dto.SearchPage;
+import com.example.demo.dto.UserRef;
+import com.example.demo.dto.UserStats;
 import com.example.demo.exception.*;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 
@@ -29,23 +40,46 @@ public interface UserService extends UserDetailsService {
 
     void unsubscribeFrom(String username, String unsubscribeFromUsername) throws InvalidCredentialsException, UsernameNotFoundException;
 
-    Message sendFriendRequest(String usernameToAdd, String usernameToAsk) throws InvalidCredentialsException, UsernameNotFoundException;
+    Notification sendFriendRequest(String usernameToAdd, String usernameToAsk) throws InvalidCredentialsException, UsernameNotFoundException;
 
-    Message denyFriendRequest(String usernameToAdd, String usernameToAsk) throws InvalidCredentialsException, UsernameNotFoundException, NotFriendsException;
+    Notification denyFriendRequest(String usernameToAdd, String usernameToAsk) throws InvalidCredentialsException, UsernameNotFoundException, NotFriendsException;
 
-    Message acceptFriendRequest(String usernameToAdd, String usernameToAsk) throws InvalidCredentialsException, UsernameNotFoundException, NotFriendsException;
+    Notification acceptFriendRequest(String usernameToAdd, String usernameToAsk) throws InvalidCredentialsException, UsernameNotFoundException, NotFriendsException;
 
-    Message unfriend(String usernameToRemove, String usernameToRemoveFrom) throws InvalidCredentialsException, UsernameNotFoundException;
+    Notification unfriend(String usernameToRemove, String usernameToRemoveFrom) throws InvalidCredentialsException, UsernameNotFoundException;
 
     Message sendMessage(String usernameFrom, String usernameTo, String content) throws InvalidCredentialsException, UsernameNotFoundException;
 
-    Page<Post> getPosts(String forUsername,String fromUsername, Pageable pageable) throws InvalidCredentialsException, UsernameNotFoundException, NotSubscribedException;
+    Slice<PostView> getPosts(String forUsername, String fromUsername, CursorRequest request) throws InvalidCredentialsException, UsernameNotFoundException, NotSubscribedException;
 
     int addPost(String username, String header, String content) throws InvalidCredentialsException, UsernameNotFoundException, IllegalArgumentException;
 
+    /**
+     * Saves the posts in chunks, each in its own transaction.
+     *
+     * @throws PartialBatchException if a chunk failed after earlier chunks were committed
+     */
+    List<Integer> addPosts(String username, List<PostDTO> posts) throws InvalidCredentialsException, UsernameNotFoundException, IllegalArgumentException, PartialBatchException;
+
     void removePost(int id);
 
-    Page<Message> getMessageHistory(String username1, String username2, Pageable pageable) throws UsernameNotFoundException ;
+    SearchPage searchPosts(String username, String query, SearchCursor after, int size, boolean subscriptionsOnly) throws InvalidCredentialsException, UsernameNotFoundException, IllegalArgumentException;
+
+    Slice<MessageView> getMessageHistory(String username1, String username2, CursorRequest request) throws UsernameNotFoundException ;
+
+    Slice<ConversationView> getConversations(String username, PageCursor after, int size) throws InvalidCredentialsException, UsernameNotFoundException, IllegalArgumentException;
+
+    Slice<PostView> getFeed(String username, CursorRequest request) throws InvalidCredentialsException;
+
+    long countPosts(String username) throws InvalidCredentialsException, UsernameNotFoundException;
+
+    long countMessages(String username1, String username2) throws InvalidCredentialsException, UsernameNotFoundException;
+
+    UserStats getStats(String username) throws InvalidCredentialsException, UsernameNotFoundException;
+
+    Slice<UserRef> getFollowers(String username, Integer after, int size) throws InvalidCredentialsException, UsernameNotFoundException, IllegalArgumentException;
+
+    Slice<UserRef> getFollowing(String username, Integer after, int size) throws InvalidCredentialsException, UsernameNotFoundException, IllegalArgumentException;
 
-    Page<Post> getFeed(String username, Pageable pageable) throws InvalidCredentialsException;
+    MutualUsers getMutual(String username, String withUsername, String kind, int limit) throws InvalidCredentialsException, UsernameNotFoundException, IllegalArgumentException;
 }
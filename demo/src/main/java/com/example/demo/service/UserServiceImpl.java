@@ -1,46 +1,130 @@
 package com.example.demo.service;
 
+import com.example.demo.data.CounterType;
 import com.example.demo.data.Message;
 import com.example.demo.data.MessageType;
+import com.example.demo.data.Notification;
+import com.example.demo.data.NotificationType;
 import com.example.demo.data.Post;
 import com.example.demo.data.User;
+import com.example.demo.dto.ConversationView;
+import com.example.demo.dto.CursorRequest;
+import com.example.demo.dto.MessageView;
+import com.example.demo.dto.MutualUsers;
+import com.example.demo.dto.PageCursor;
+import com.example.demo.dto.PostDTO;
+import com.example.demo.dto.PostText;
+import com.example.demo.dto.PostView;
+import com.example.demo.dto.SearchCursor;
+import com.example.demo.dto.SearchPage;
+import com.example.demo.dto.TimelineEntry;
+import com.example.demo.dto.UserRef;
+import com.example.demo.dto.UserStats;
 import com.example.demo.exception.AlreadyRegisteredException;
 import com.example.demo.exception.InvalidCredentialsException;
 import com.example.demo.exception.NotFriendsException;
 import com.example.demo.exception.NotSubscribedException;
+import com.example.demo.exception.PartialBatchException;
+import com.example.demo.repository.ConversationSummaryRepository;
+import com.example.demo.repository.FriendshipRepository;
 import com.example.demo.repository.MessageRepository;
 import com.example.demo.repository.PostRepository;
 import com.example.demo.repository.UserRepository;
+import com.example.demo.service.cache.PostJsonCache;
+import com.example.demo.service.counter.StatCounters;
+import com.example.demo.service.feed.FeedPageCache;
+import com.example.demo.service.feed.TimelineStore;
+import com.example.demo.service.graph.IntSets;
+import com.example.demo.service.graph.SocialGraphIndex;
+import com.example.demo.service.hot.HotPostStore;
+import com.example.demo.service.message.ConversationSummaryWriter;
+import com.example.demo.service.message.MessageWriteBehind;
+import com.example.demo.service.notification.NotificationCenter;
+import com.example.demo.service.push.MessagePushHub;
+import com.example.demo.service.search.PostSearchIndex;
+import com.example.demo.service.search.SearchHit;
+import com.example.demo.service.trending.TrendingEngine;
+import jakarta.persistence.EntityManager;
 import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.IntPredicate;
 
 @Service
 public class UserServiceImpl implements UserService{
 
+    private static final int MUTUAL_LIMIT = 100;
+    private static final int SEARCH_PAGE_LIMIT = 100;
+
     UserRepository userRepository;
     PostRepository postRepository;
     MessageRepository messageRepository;
+    ConversationSummaryRepository conversationSummaryRepository;
+    FriendshipRepository friendshipRepository;
 
     PasswordEncoder passwordEncoder;
 
+    SocialGraphIndex graph;
+    TimelineStore timelineStore;
+    FeedPageCache feedPageCache;
+    PostJsonCache postJsonCache;
+    HotPostStore hotPostStore;
+    StatCounters statCounters;
+    PostSearchIndex postSearchIndex;
+    TrendingEngine trendingEngine;
+    MessagePushHub messagePushHub;
+    NotificationCenter notificationCenter;
+    ConversationSummaryWriter conversationSummaryWriter;
+    MessageWriteBehind messageWriteBehind;
+
+    EntityManager entityManager;
+    TransactionTemplate transactionTemplate;
+    int postBatchChunkSize;
+    int postBatchMaxSize;
+
     @Autowired
-    public UserServiceImpl(UserRepository userRepository, PostRepository postRepository, MessageRepository messageRepository, PasswordEncoder passwordEncoder) {
+    public UserServiceImpl(UserRepository userRepository, PostRepository postRepository, MessageRepository messageRepository, ConversationSummaryRepository conversationSummaryRepository, FriendshipRepository friendshipRepository, PasswordEncoder passwordEncoder, SocialGraphIndex graph, TimelineStore timelineStore, FeedPageCache feedPageCache, PostJsonCache postJsonCache, HotPostStore hotPostStore, StatCounters statCounters, PostSearchIndex postSearchIndex, TrendingEngine trendingEngine, MessagePushHub messagePushHub, NotificationCenter notificationCenter,
+                           ConversationSummaryWriter conversationSummaryWriter, MessageWriteBehind messageWriteBehind,
+                           EntityManager entityManager, TransactionTemplate transactionTemplate,
+                           @Value("${posts.batch.chunk-size:500}") int postBatchChunkSize,
+                           @Value("${posts.batch.max-size:10000}") int postBatchMaxSize) {
         this.userRepository = userRepository;
         this.postRepository = postRepository;
         this.messageRepository = messageRepository;
+        this.conversationSummaryRepository = conversationSummaryRepository;
+        this.friendshipRepository = friendshipRepository;
         this.passwordEncoder = passwordEncoder;
+        this.graph = graph;
+        this.timelineStore = timelineStore;
+        this.feedPageCache = feedPageCache;
+        this.postJsonCache = postJsonCache;
+        this.hotPostStore = hotPostStore;
+        this.statCounters = statCounters;
+        this.postSearchIndex = postSearchIndex;
+        this.trendingEngine = trendingEngine;
+        this.messagePushHub = messagePushHub;
+        this.notificationCenter = notificationCenter;
+        this.conversationSummaryWriter = conversationSummaryWriter;
+        this.messageWriteBehind = messageWriteBehind;
+        messageWriteBehind.onCommitted(messages -> messages.forEach(this::onMessageCommitted));
+        this.entityManager = entityManager;
+        this.transactionTemplate = transactionTemplate;
+        this.postBatchChunkSize = postBatchChunkSize;
+        this.postBatchMaxSize = postBatchMaxSize;
     }
 
     @Override
@@ -71,6 +155,14 @@ public class UserServiceImpl implements UserService{
         return userRepository.findByUsername(username).orElseThrow(()->new UsernameNotFoundException("User with username " + username + " was not found"));
     }
 
+    private int getIdByUsername(String username) throws InvalidCredentialsException, UsernameNotFoundException {
+
+        if (username==null || username.equals(""))
+            throw new InvalidCredentialsException("username cannot be empty");
+
+        return userRepository.findIdByUsername(username).orElseThrow(()->new UsernameNotFoundException("User with username " + username + " was not found"));
+    }
+
     @Override
     public void register(String username, String password, String email) throws AlreadyRegisteredException {
 
@@ -99,32 +191,45 @@ public class UserServiceImpl implements UserService{
 
         if (username.equals(subscribeToUsername)) throw new NotSubscribedException("Can not subscribe to self");
 
-        User subscriber = getByUsername(username);
-        User owner = getByUsername(subscribeToUsername);
+        int subscriberId = getIdByUsername(username);
+        int ownerId = getIdByUsername(subscribeToUsername);
+
+        if (userRepository.subscribe(subscriberId, ownerId) == 0) return;
 
-        subscriber.getSubscribedTo().add(owner);
-        owner.getSubscribers().add(subscriber);
+        graph.subscribe(subscriberId, ownerId);
+        AfterCommit.run(() -> {
+            statCounters.add(CounterType.SUBSCRIPTIONS, subscriberId, 1);
+            statCounters.add(CounterType.SUBSCRIBERS, ownerId, 1);
+            trendingEngine.onSubscribed(ownerId, subscribeToUsername);
 
-        userRepository.save(owner);
+            timelineStore.onSubscribed(subscriberId, ownerId);
+            feedPageCache.invalidateReader(subscriberId);
+        });
 
     }
 
     @Override
     public void unsubscribeFrom(String username, String unsubscribeFromUsername) throws InvalidCredentialsException, UsernameNotFoundException, NotSubscribedException{
 
-        User subscriber = getByUsername(username);
-        User owner = getByUsername(unsubscribeFromUsername);
+        int subscriberId = getIdByUsername(username);
+        int ownerId = getIdByUsername(unsubscribeFromUsername);
 
-        subscriber.getSubscribedTo().remove(owner);
-        owner.getSubscribers().remove(subscriber);
+        if (userRepository.unsubscribe(subscriberId, ownerId) == 0) return;
 
-        userRepository.save(owner);
+        graph.unsubscribe(subscriberId, ownerId);
+        AfterCommit.run(() -> {
+            statCounters.add(CounterType.SUBSCRIPTIONS, subscriberId, -1);
+            statCounters.add(CounterType.SUBSCRIBERS, ownerId, -1);
+
+            timelineStore.onUnsubscribed(subscriberId, ownerId);
+            feedPageCache.invalidateReader(subscriberId);
+        });
 
     }
 
     @Override
     @Transactional
-    public Message sendFriendRequest(String usernameToAdd, String usernameToAsk) throws InvalidCredentialsException, UsernameNotFoundException, NotFriendsException{
+    public Notification sendFriendRequest(String usernameToAdd, String usernameToAsk) throws InvalidCredentialsException, UsernameNotFoundException, NotFriendsException{
 
         if (usernameToAdd.equals(usernameToAsk)) throw new NotFriendsException("Can not send friend request to self");
 
@@ -133,86 +238,73 @@ public class UserServiceImpl implements UserService{
 
         subscribeTo(usernameToAdd, usernameToAsk);
 
-        Message message = new Message(userToAdd,userToAsk, LocalDateTime.now(),null, MessageType.FRIEND_REQUEST);
-
-        userToAdd.getMessages().add(message);
+        Notification notification = notificationCenter.publish(userToAsk.getId(), userToAdd.getId(), NotificationType.FRIEND_REQUEST);
 
         userToAdd.getPendingRequests().add(userToAsk);
         userToAsk.getIncomingFriendRequests().add(userToAdd);
 
         userRepository.save(userToAdd);
 
-        return messageRepository.findFirstByFromAndToAndTypeOrderByDateTimeDesc(userToAdd,userToAsk,MessageType.FRIEND_REQUEST);
+        return notification;
     }
 
     @Override
     @Transactional
-    public Message acceptFriendRequest(String usernameToAdd, String usernameToAsk) throws UsernameNotFoundException, InvalidCredentialsException, NotFriendsException {
+    public Notification acceptFriendRequest(String usernameToAdd, String usernameToAsk) throws UsernameNotFoundException, InvalidCredentialsException, NotFriendsException {
 
         User userToAdd = getByUsername(usernameToAdd);
         User userToAsk = getByUsername(usernameToAsk);
 
         if (!userToAsk.getIncomingFriendRequests().contains(userToAdd)) throw new NotFriendsException ("No friend request from " + usernameToAdd + " was found");
 
-        Message message = new Message(userToAsk,userToAdd, LocalDateTime.now(),null, MessageType.FRIEND_APPROVE);
-
-        userToAsk.getMessages().add(message);
+        Notification notification = notificationCenter.publish(userToAdd.getId(), userToAsk.getId(), NotificationType.FRIEND_APPROVE);
 
         userToAdd.getPendingRequests().remove(userToAsk);
         userToAsk.getIncomingFriendRequests().remove(userToAdd);
-        userToAdd.getFriendTo().add(userToAsk);
-        userToAdd.getFriendsWith().add(userToAsk);
-        userToAsk.getFriendTo().add(userToAdd);
-        userToAsk.getFriendsWith().add(userToAdd);
         userRepository.save(userToAsk);
 
+        if (friendshipRepository.befriend(userToAdd.getId(), userToAsk.getId(), LocalDateTime.now()) > 0)
+            graph.addFriends(userToAdd.getId(), userToAsk.getId());
+
         subscribeTo(usernameToAsk,usernameToAdd);
 
-        return messageRepository.findFirstByFromAndToAndTypeOrderByDateTimeDesc(userToAsk,userToAdd,MessageType.FRIEND_APPROVE);
+        return notification;
     }
 
     @Override
-    public Message denyFriendRequest(String usernameToAdd, String usernameToAsk) throws InvalidCredentialsException, UsernameNotFoundException, NotFriendsException{
+    public Notification denyFriendRequest(String usernameToAdd, String usernameToAsk) throws InvalidCredentialsException, UsernameNotFoundException, NotFriendsException{
         User userToAdd = getByUsername(usernameToAdd);
         User userToAsk = getByUsername(usernameToAsk);
 
         if (!userToAsk.getIncomingFriendRequests().contains(userToAdd)) throw new NotFriendsException ("No friend request from " + usernameToAdd + " was found");
 
-        Message message = new Message(userToAsk,userToAdd, LocalDateTime.now(),null, MessageType.FRIEND_DENY);
-
-        userToAsk.getMessages().add(message);
+        Notification notification = notificationCenter.publish(userToAdd.getId(), userToAsk.getId(), NotificationType.FRIEND_DENY);
 
         userToAdd.getPendingRequests().remove(userToAsk);
         userToAsk.getIncomingFriendRequests().remove(userToAdd);
 
         userRepository.save(userToAsk);
 
-        return messageRepository.findFirstByFromAndToAndTypeOrderByDateTimeDesc(userToAsk,userToAdd,MessageType.FRIEND_DENY);
+        return notification;
     }
 
 
     @Override
     @Transactional
-    public Message unfriend(String usernameToRemove, String usernameToRemoveFrom) throws UsernameNotFoundException, InvalidCredentialsException, NotFriendsException{
+    public Notification unfriend(String usernameToRemove, String usernameToRemoveFrom) throws UsernameNotFoundException, InvalidCredentialsException, NotFriendsException{
         User userToRemove = getByUsername(usernameToRemove);
         User userToAsk = getByUsername(usernameToRemoveFrom);
 
-        if (!userToRemove.getFriendsWith().contains(userToAsk)) throw new NotFriendsException("Not friends with " + usernameToRemoveFrom);
+        if (!graph.areFriends(userToRemove.getId(), userToAsk.getId())
+                || friendshipRepository.unfriend(userToRemove.getId(), userToAsk.getId()) == 0)
+            throw new NotFriendsException("Not friends with " + usernameToRemoveFrom);
+        graph.removeFriends(userToRemove.getId(), userToAsk.getId());
 
-        Message message = new Message(userToAsk,userToRemove, LocalDateTime.now(),null, MessageType.FRIEND_REMOVE);
-
-        userToAsk.getMessages().add(message);
-
-        userToAsk.getFriendsWith().remove(userToRemove);
-        userToAsk.getFriendTo().remove(userToRemove);
-        userToRemove.getFriendTo().remove(userToAsk);
-        userToRemove.getFriendsWith().remove(userToAsk);
-
-        userRepository.save(userToAsk);
+        Notification notification = notificationCenter.publish(userToRemove.getId(), userToAsk.getId(), NotificationType.FRIEND_REMOVE);
 
         unsubscribeFrom(usernameToRemoveFrom,usernameToRemove);
 
-        return messageRepository.findFirstByFromAndToAndTypeOrderByDateTimeDesc(userToAsk,userToRemove,MessageType.FRIEND_REMOVE);
+        return notification;
     }
 
 
@@ -228,57 +320,166 @@ public class UserServiceImpl implements UserService{
 
         Message message = new Message(userFrom,userTo,LocalDateTime.now(), content, MessageType.MESSAGE);
 
-        userFrom.getMessages().add(message);
+        if (messageWriteBehind.isEnabled())
+            return messageWriteBehind.accept(message);
+
+        Message saved = transactionTemplate.execute(status -> {
+            Message persisted = messageRepository.save(message);
+            conversationSummaryWriter.record(List.of(persisted));
+            return persisted;
+        });
+        onMessageCommitted(saved);
 
-        userRepository.save(userFrom);
+        return saved;
+    }
 
-        return messageRepository.findFirstByFromAndToAndTypeOrderByDateTimeDesc(userFrom,userTo,MessageType.MESSAGE);
+    private void onMessageCommitted(Message message) {
+        statCounters.add(CounterType.MESSAGES, message.getConversationId(), 1);
+        messagePushHub.publish(message);
     }
 
     @Override
     public int addPost(String username, String header, String content) throws InvalidCredentialsException, UsernameNotFoundException, IllegalArgumentException {
-        User user = getByUsername(username);
+        int authorId = getIdByUsername(username);
         if (header==null || header.equals("") || content==null || content.equals(""))
             throw new IllegalArgumentException("Invalid post data provided");
-        Post post = new Post(LocalDateTime.now(),header,content,user);
-        user.getPosts().add(post);
 
-        userRepository.save(user);
+        Post saved = postRepository.save(new Post(LocalDateTime.now(),header,content,entityManager.getReference(User.class, authorId)));
+        onPostsAdded(authorId, username, List.of(saved));
 
-        return postRepository.findFirstByAuthorOrderByDateDesc(getByUsername(username)).getId();
+        return saved.getId();
+    }
+
+    @Override
+    public List<Integer> addPosts(String username, List<PostDTO> posts) throws InvalidCredentialsException, UsernameNotFoundException, IllegalArgumentException, PartialBatchException {
+        if (posts == null || posts.isEmpty())
+            throw new IllegalArgumentException("No posts provided");
+        if (posts.size() > postBatchMaxSize)
+            throw new IllegalArgumentException("Can not add more than " + postBatchMaxSize + " posts at once");
+        for (PostDTO post : posts)
+            if (post == null || post.header==null || post.header.equals("") || post.content==null || post.content.equals(""))
+                throw new IllegalArgumentException("Invalid post data provided");
+
+        User user = getByUsername(username);
+
+        List<Integer> ids = new ArrayList<>(posts.size());
+        try {
+            for (int from = 0; from < posts.size(); from += postBatchChunkSize) {
+                List<PostDTO> chunk = posts.subList(from, Math.min(from + postBatchChunkSize, posts.size()));
+
+                List<Post> saved = transactionTemplate.execute(status -> {
+                    LocalDateTime now = LocalDateTime.now();
+                    List<Post> batch = new ArrayList<>(chunk.size());
+                    for (PostDTO post : chunk) batch.add(new Post(now, post.header, post.content, user));
+                    postRepository.saveAll(batch);
+                    entityManager.flush();
+                    entityManager.clear();
+                    return batch;
+                });
+
+                for (Post post : saved) ids.add(post.getId());
+                onPostsAdded(user.getId(), user.getUsername(), saved);
+            }
+        }
+        catch (RuntimeException e) {
+            if (ids.isEmpty()) throw e;
+            throw new PartialBatchException("Saved " + ids.size() + " of " + posts.size() + " posts: " + e.getMessage(), ids, e);
+        }
+        return ids;
+    }
+
+    private void onPostsAdded(int authorId, String authorName, List<Post> posts) {
+        for (Post post : posts) {
+            postSearchIndex.add(new PostText(post.getId(), authorId, post.getHeadline(), post.getContent()));
+            trendingEngine.onPostAdded(post.getId(), post.getHeadline(), authorId, authorName);
+            PostView view = new PostView(post.getId(), post.getDate(), post.getHeadline(), post.getContent(), authorId, authorName);
+            postJsonCache.put(view);
+            hotPostStore.add(view);
+        }
+        for (int readerId : timelineStore.onPostsAdded(authorId, posts)) feedPageCache.invalidateReader(readerId);
+        feedPageCache.invalidateAuthor(authorId);
+        statCounters.add(CounterType.POSTS, authorId, posts.size());
     }
 
     @Override
     public void removePost(int id) {
-        postRepository.deleteById(id);
+        postRepository.findById(id).ifPresent(post -> {
+            postRepository.delete(post);
+            postSearchIndex.remove(post.getId());
+            trendingEngine.onPostRemoved(post.getId());
+            postJsonCache.evict(post.getId());
+            hotPostStore.remove(post.getId());
+            for (int readerId : timelineStore.onPostRemoved(post)) feedPageCache.invalidateReader(readerId);
+            feedPageCache.invalidateAuthor(post.getAuthor().getId());
+            statCounters.add(CounterType.POSTS, post.getAuthor().getId(), -1);
+        });
     }
 
     @Override
-    public Page<Post> getPosts(String forUsername,String fromUsername, Pageable pageable) throws InvalidCredentialsException, UsernameNotFoundException, NotSubscribedException{
+    public Slice<PostView> getPosts(String forUsername, String fromUsername, CursorRequest request) throws InvalidCredentialsException, UsernameNotFoundException, NotSubscribedException{
 
-        User forUser = getByUsername(forUsername);
+        int forUserId = getIdByUsername(forUsername);
 
         if(fromUsername==null || fromUsername.equals(""))
-            return postRepository.findAllByAuthorOrderByDateDesc(forUser, pageable);
+            return getPostsBy(forUserId, request);
 
-        User fromUser = getByUsername(fromUsername);
+        int fromUserId = getIdByUsername(fromUsername);
 
-        if (!forUser.getSubscribedTo().contains(fromUser))
-            throw new NotSubscribedException("User " + fromUser +" is not in subscriptions");
+        if (!graph.isSubscribed(forUserId, fromUserId))
+            throw new NotSubscribedException("User " + fromUsername +" is not in subscriptions");
 
-        return postRepository.findAllByAuthorOrderByDateDesc(fromUser, pageable);
+        return getPostsBy(fromUserId, request);
     }
 
-    @Override
-    public Page<Message> getMessageHistory(String username1, String username2, Pageable pageable) throws InvalidCredentialsException, UsernameNotFoundException {
-        User user1 = getByUsername(username1);
-        User user2 = getByUsername(username2);
+    private Slice<PostView> getPostsBy(int authorId, CursorRequest request) {
+        Slice<PostView> posts = feedPageCache.getPosts(authorId, request);
+        if (posts != null) return posts;
+
+        long version = feedPageCache.postsVersion(authorId);
+        posts = findPostsBy(authorId, request);
+        feedPageCache.putPosts(authorId, request, posts, version);
+        return posts;
+    }
+
+    private Slice<PostView> findPostsBy(int authorId, CursorRequest request) {
+        if (request.isNewestFirst()) {
+            List<PostView> hot = hotPostStore.page(new int[]{authorId}, request.after(), request.size() + 1);
+            if (hot != null) return slice(hot, request);
+        }
 
-        Set<User> users = new HashSet<>();
-        users.add(user1);
-        users.add(user2);
+        PageCursor after = request.after();
+        if (request.isFirstPage())
+            return postRepository.findViewsByAuthorId(authorId, request.firstPage("date"));
+        if (request.isNewestFirst())
+            return postRepository.findViewsByAuthorIdBefore(authorId, after.date(), after.id(), request.nextPage());
+        return postRepository.findViewsByAuthorIdAfter(authorId, after.date(), after.id(), request.nextPage());
+    }
 
-        return messageRepository.findAllByFromInAndToIn(users, pageable);
+    @Override
+    public Slice<MessageView> getMessageHistory(String username1, String username2, CursorRequest request) throws InvalidCredentialsException, UsernameNotFoundException {
+        int readerId = getIdByUsername(username1);
+        int peerId = getIdByUsername(username2);
+        long conversationId = Message.conversationId(readerId, peerId);
+
+        if (request.isFirstPage()) conversationSummaryRepository.markRead(readerId, peerId);
+
+        PageCursor after = request.after();
+        if (request.isFirstPage())
+            return messageRepository.findViewsByConversationId(conversationId, request.firstPage("dateTime"));
+        if (request.isNewestFirst())
+            return messageRepository.findViewsByConversationIdBefore(conversationId, after.date(), after.id(), request.nextPage());
+        return messageRepository.findViewsByConversationIdAfter(conversationId, after.date(), after.id(), request.nextPage());
+    }
+
+    @Override
+    public Slice<ConversationView> getConversations(String username, PageCursor after, int size) throws InvalidCredentialsException, UsernameNotFoundException, IllegalArgumentException {
+        if (size < 1) throw new IllegalArgumentException("Page size must not be less than one");
+        if (size > CursorRequest.MAX_SIZE) throw new IllegalArgumentException("Page size must not be greater than " + CursorRequest.MAX_SIZE);
+
+        int ownerId = getIdByUsername(username);
+        if (after == null)
+            return conversationSummaryRepository.findViewsByOwnerId(ownerId, PageRequest.ofSize(size));
+        return conversationSummaryRepository.findViewsByOwnerIdBefore(ownerId, after.date(), after.id(), PageRequest.ofSize(size));
     }
 
     @Override
@@ -287,11 +488,158 @@ public class UserServiceImpl implements UserService{
     }
 
     @Override
-    public Page<Post> getFeed(String username, Pageable pageable) throws InvalidCredentialsException, UsernameNotFoundException{
+    public Slice<PostView> getFeed(String username, CursorRequest request) throws InvalidCredentialsException, UsernameNotFoundException{
+
+        int userId = getIdByUsername(username);
+
+        Slice<PostView> feed = feedPageCache.getFeed(userId, request);
+        if (feed != null) return feed;
+
+        long version = feedPageCache.feedVersion(userId);
+
+        if (request.isNewestFirst()) {
+            List<TimelineEntry> entries = timelineStore.read(userId, request.after(), request.size() + 1);
+            if (entries != null) {
+                boolean hasNext = entries.size() > request.size();
+                if (hasNext) entries = entries.subList(0, request.size());
+                feed = new SliceImpl<>(findAllInOrder(entries.stream().map(TimelineEntry::postId).toList()), request.nextPage(), hasNext);
+                feedPageCache.putFeed(userId, request, feed, timelineStore.pulledAuthors(userId), version);
+                return feed;
+            }
+        }
+
+        int[] subscriptions = graph.subscriptions(userId);
+        if (request.isNewestFirst()) {
+            List<PostView> hot = hotPostStore.page(subscriptions, request.after(), request.size() + 1);
+            if (hot != null) {
+                feed = slice(hot, request);
+                feedPageCache.putFeed(userId, request, feed, Arrays.stream(subscriptions).boxed().toList(), version);
+                return feed;
+            }
+        }
+
+        List<Integer> authorIds = Arrays.stream(subscriptions).boxed().toList();
+        feed = findFeedPage(authorIds, request);
+        feedPageCache.putFeed(userId, request, feed, authorIds, version);
+        return feed;
+    }
+
+    private Slice<PostView> findFeedPage(List<Integer> authorIds, CursorRequest request) {
+        if (authorIds.isEmpty())
+            return new SliceImpl<>(List.of(), request.nextPage(), false);
+
+        PageCursor after = request.after();
+        if (request.isFirstPage())
+            return postRepository.findViewsByAuthorIdIn(authorIds, request.firstPage("date"));
+        if (request.isNewestFirst())
+            return postRepository.findViewsByAuthorIdInBefore(authorIds, after.date(), after.id(), request.nextPage());
+        return postRepository.findViewsByAuthorIdInAfter(authorIds, after.date(), after.id(), request.nextPage());
+    }
+
+    @Override
+    public SearchPage searchPosts(String username, String query, SearchCursor after, int size, boolean subscriptionsOnly) throws InvalidCredentialsException, UsernameNotFoundException, IllegalArgumentException {
+        if (size < 1 || size > SEARCH_PAGE_LIMIT)
+            throw new IllegalArgumentException("Page size must be between 1 and " + SEARCH_PAGE_LIMIT);
+
+        IntPredicate authorFilter = authorId -> true;
+        if (subscriptionsOnly) {
+            int userId = getIdByUsername(username);
+            authorFilter = authorId -> graph.isSubscribed(userId, authorId);
+        }
+
+        List<SearchHit> hits = postSearchIndex.search(query, authorFilter, after, size + 1);
+        boolean hasNext = hits.size() > size;
+        if (hasNext) hits = hits.subList(0, size);
+
+        List<PostView> posts = findAllInOrder(hits.stream().map(SearchHit::postId).toList());
+        return new SearchPage(posts, hasNext ? hits.get(hits.size() - 1).cursor() : null);
+    }
+
+    /**
+     * @param posts one more than the requested page size when there is a next page
+     */
+    private static Slice<PostView> slice(List<PostView> posts, CursorRequest request) {
+        boolean hasNext = posts.size() > request.size();
+        return new SliceImpl<>(hasNext ? posts.subList(0, request.size()) : posts, request.nextPage(), hasNext);
+    }
+
+    private List<PostView> findAllInOrder(List<Integer> ids) {
+        if (ids.isEmpty()) return List.of();
+
+        Map<Integer, PostView> posts = hotPostStore.getAll(ids);
+        if (posts.size() < ids.size()) {
+            List<Integer> missing = ids.stream().filter(id -> !posts.containsKey(id)).toList();
+            for (PostView post : postRepository.findViewsByIdIn(missing)) posts.put(post.id(), post);
+        }
+
+        List<PostView> ordered = new ArrayList<>(ids.size());
+        for (Integer id : ids) {
+            PostView post = posts.get(id);
+            if (post != null) ordered.add(post);
+        }
+        return ordered;
+    }
+
+    @Override
+    public long countPosts(String username) throws InvalidCredentialsException, UsernameNotFoundException {
+        return statCounters.get(CounterType.POSTS, getByUsername(username).getId());
+    }
 
+    @Override
+    public long countMessages(String username1, String username2) throws InvalidCredentialsException, UsernameNotFoundException {
+        return statCounters.get(CounterType.MESSAGES, Message.conversationId(getIdByUsername(username1), getIdByUsername(username2)));
+    }
+
+    @Override
+    public UserStats getStats(String username) throws InvalidCredentialsException, UsernameNotFoundException {
         User user = getByUsername(username);
+        return new UserStats(user.getUsername(),
+                statCounters.get(CounterType.POSTS, user.getId()),
+                statCounters.get(CounterType.SUBSCRIBERS, user.getId()),
+                statCounters.get(CounterType.SUBSCRIPTIONS, user.getId()));
+    }
+
+
+    /**
+     * @return users subscribed to {@code username} with ids greater than {@code after}, by ascending id
+     */
+    @Override
+    public Slice<UserRef> getFollowers(String username, Integer after, int size) throws InvalidCredentialsException, UsernameNotFoundException, IllegalArgumentException {
+        if (size < 1) throw new IllegalArgumentException("Page size must not be less than one");
+        if (size > CursorRequest.MAX_SIZE) throw new IllegalArgumentException("Page size must not be greater than " + CursorRequest.MAX_SIZE);
+        return userRepository.findSubscriberRefs(getIdByUsername(username), after == null ? 0 : after, PageRequest.ofSize(size));
+    }
 
-        return postRepository.findAllByAuthorIn(user.getSubscribedTo(), pageable);
+    /**
+     * @return users {@code username} is subscribed to with ids greater than {@code after}, by ascending id
+     */
+    @Override
+    public Slice<UserRef> getFollowing(String username, Integer after, int size) throws InvalidCredentialsException, UsernameNotFoundException, IllegalArgumentException {
+        if (size < 1) throw new IllegalArgumentException("Page size must not be less than one");
+        if (size > CursorRequest.MAX_SIZE) throw new IllegalArgumentException("Page size must not be greater than " + CursorRequest.MAX_SIZE);
+        return userRepository.findSubscriptionRefs(getIdByUsername(username), after == null ? 0 : after, PageRequest.ofSize(size));
     }
 
+    /**
+     * {@code friends}: friends of both users. {@code subscribers}: users {@code username} is subscribed to
+     * who are themselves subscribed to {@code withUsername}.
+     */
+    @Override
+    public MutualUsers getMutual(String username, String withUsername, String kind, int limit) throws InvalidCredentialsException, UsernameNotFoundException, IllegalArgumentException {
+        if (limit < 0 || limit > MUTUAL_LIMIT) throw new IllegalArgumentException("Limit must be between 0 and " + MUTUAL_LIMIT);
+
+        int userId = getIdByUsername(username);
+        int otherId = getIdByUsername(withUsername);
+
+        IntSets.Intersection mutual = switch (kind) {
+            case "friends" -> IntSets.intersect(graph.friends(userId), graph.friends(otherId), limit);
+            case "subscribers" -> IntSets.intersect(graph.subscriptions(userId), graph.subscribers(otherId), limit);
+            default -> throw new IllegalArgumentException("Unknown kind " + kind + ", expected friends or subscribers");
+        };
+        if (mutual.first().length == 0) return new MutualUsers(mutual.count(), List.of());
+
+        List<UserRef> users = new ArrayList<>(userRepository.findRefsByIdIn(Arrays.stream(mutual.first()).boxed().toList()));
+        users.sort(Comparator.comparingInt(UserRef::id));
+        return new MutualUsers(mutual.count(), users);
+    }
 }
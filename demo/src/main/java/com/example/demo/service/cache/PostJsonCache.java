@@ -0,0 +1,88 @@
+package com.example.demo.service.cache;
+
+import com.example.demo.dto.PostView;
+import com.example.demo.service.StatsSource;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * JSON encodings of posts keyed by post id. Posts are never edited, so an entry stays valid until the
+ * post is removed; responses splice the cached bytes into their output instead of encoding the post again.
+ */
+@Component
+public class PostJsonCache implements StatsSource {
+
+    private final JsonFactory jsonFactory;
+    private final LruCache<Integer, JsonFragment> cache;
+    private final LongAdder encodedBytes = new LongAdder();
+
+    @Autowired
+    public PostJsonCache(ObjectMapper objectMapper,
+                         @Value("${posts.json-cache.max-entries:100000}") int maxEntries) {
+        this.jsonFactory = objectMapper.getFactory();
+        this.cache = new LruCache<>(maxEntries);
+    }
+
+    /**
+     * @return the cached encoding of {@code post}, encoding and caching it on a miss
+     */
+    public JsonFragment get(PostView post) {
+        JsonFragment fragment = cache.get(post.id());
+        if (fragment == null) {
+            fragment = encode(post);
+            cache.put(post.id(), fragment);
+        }
+        return fragment;
+    }
+
+    public void put(PostView post) {
+        cache.put(post.id(), encode(post));
+    }
+
+    public void evict(int postId) {
+        cache.remove(postId);
+    }
+
+    @Override
+    public String statsName() {
+        return "postJsonCache";
+    }
+
+    @Override
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = cache.stats();
+        stats.put("encodedBytes", encodedBytes.sum());
+        return stats;
+    }
+
+    private JsonFragment encode(PostView post) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(128 + post.content().length());
+        try (JsonGenerator json = jsonFactory.createGenerator(out, JsonEncoding.UTF8)) {
+            json.writeStartObject();
+            json.writeNumberField("id", post.id());
+            if (post.date() == null) json.writeNullField("date");
+            else json.writeStringField("date", post.date().toString());
+            json.writeStringField("headline", post.headline());
+            json.writeStringField("content", post.content());
+            json.writeNumberField("authorId", post.authorId());
+            json.writeStringField("authorUsername", post.authorUsername());
+            json.writeEndObject();
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        encodedBytes.add(out.size());
+        return new JsonFragment(out.toByteArray());
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.demo.service.counter;
+
+import com.example.demo.data.CounterType;
+import com.example.demo.data.StatCounter;
+import com.example.demo.repository.StatCounterRepository;
+import com.example.demo.service.StatsSource;
+import com.example.demo.service.cache.LruCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Denormalized counts that replace COUNT(*) queries. Write paths add deltas to striped in-memory accumulators,
+ * which are flushed to {@code stat_counter} periodically; reads add the unflushed delta to the stored value.
+ * A reconciliation job recounts everything from the source tables to repair drift, e.g. after a crash lost unflushed deltas.
+ * <p>
+ * Accumulators are created and dropped under the map's per-key lock, so an accumulator that flushed to zero can be
+ * removed without losing a concurrent delta. A delta being flushed stays visible to reads as in-flight until the upsert
+ * commits, and moves back to pending if it fails. A flushed key is evicted from the stored-value cache rather than
+ * patched; reads that started before the flush do not cache what they loaded.
+ */
+@Component
+public class StatCounters implements StatsSource {
+
+    private static final Logger log = LoggerFactory.getLogger(StatCounters.class);
+
+    private record Key(CounterType type, long ownerId) {
+    }
+
+    private static final class Pending {
+        final LongAdder delta = new LongAdder();
+        final AtomicLong inFlight = new AtomicLong();
+
+        long sum() {
+            return delta.sum() + inFlight.get();
+        }
+    }
+
+    private final StatCounterRepository counterRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Map<Key, Pending> pending = new ConcurrentHashMap<>();
+    private final LruCache<Key, Long> stored;
+    private final AtomicLong flushes = new AtomicLong();
+    private final LongAdder flushedRows = new LongAdder();
+
+    @Autowired
+    public StatCounters(StatCounterRepository counterRepository,
+                        TransactionTemplate transactionTemplate,
+                        @Value("${counters.cache.max-entries:100000}") int maxCachedEntries) {
+        this.counterRepository = counterRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.stored = new LruCache<>(maxCachedEntries);
+    }
+
+    public void add(CounterType type, long ownerId, long delta) {
+        pending.compute(new Key(type, ownerId), (key, counter) -> {
+            if (counter == null) counter = new Pending();
+            counter.delta.add(delta);
+            return counter;
+        });
+    }
+
+    public long get(CounterType type, long ownerId) {
+        Key key = new Key(type, ownerId);
+        Long value = stored.get(key);
+        if (value == null) {
+            long flushesBefore = flushes.get();
+            value = counterRepository.findById(new StatCounter.Key(type, ownerId)).map(StatCounter::getValue).orElse(0L);
+            if (flushes.get() == flushesBefore) stored.put(key, value);
+        }
+        Pending counter = pending.get(key);
+        return counter == null ? value : value + counter.sum();
+    }
+
+    @Scheduled(fixedDelayString = "${counters.flush-interval:PT5S}")
+    public synchronized void flush() {
+        for (Map.Entry<Key, Pending> entry : pending.entrySet()) {
+            Key key = entry.getKey();
+            Pending counter = entry.getValue();
+            long delta = counter.delta.sum();
+            if (delta == 0) {
+                dropIfZero(key);
+                continue;
+            }
+
+            counter.inFlight.addAndGet(delta);
+            counter.delta.add(-delta);
+            try {
+                counterRepository.add(key.type().name(), key.ownerId(), delta);
+            }
+            catch (RuntimeException e) {
+                counter.delta.add(delta);
+                counter.inFlight.addAndGet(-delta);
+                log.warn("Could not flush counter {}", key, e);
+                return;
+            }
+            flushes.incrementAndGet();
+            stored.remove(key);
+            counter.inFlight.addAndGet(-delta);
+            flushedRows.increment();
+            dropIfZero(key);
+        }
+    }
+
+    /**
+     * Recounts every counter from its source table. Deltas still pending at that point are already part of the
+     * recount and are dropped; writes that land while this runs can leave a counter off by their delta until the next run.
+     */
+    @Scheduled(cron = "${counters.reconcile-cron:0 0 4 * * *}")
+    public synchronized void reconcile() {
+        flush();
+        transactionTemplate.executeWithoutResult(status -> {
+            for (CounterType type : CounterType.values()) counterRepository.reset(type.name());
+            counterRepository.recountPosts();
+            counterRepository.recountSubscribers();
+            counterRepository.recountSubscriptions();
+            counterRepository.recountMessages();
+        });
+        pending.values().forEach(counter -> counter.delta.add(-counter.delta.sum()));
+        pending.keySet().forEach(this::dropIfZero);
+        flushes.incrementAndGet();
+        stored.clear();
+        log.info("Reconciled stat counters");
+    }
+
+    private void dropIfZero(Key key) {
+        pending.computeIfPresent(key, (ignored, counter) -> counter.delta.sum() == 0 && counter.inFlight.get() == 0 ? null : counter);
+    }
+
+    @Override
+    public String statsName() {
+        return "statCounters";
+    }
+
+    @Override
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("pendingKeys", pending.size());
+        stats.put("flushedRows", flushedRows.sum());
+        stats.put("storedCache", stored.stats());
+        return stats;
+    }
+}
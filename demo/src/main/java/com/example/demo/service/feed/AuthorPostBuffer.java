@@ -0,0 +1,61 @@
+package com.example.demo.service.feed;
+
+import com.example.demo.dto.PageCursor;
+import com.example.demo.dto.TimelineEntry;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fixed-size ring of the most recent posts of one high-follower author.
+ */
+class AuthorPostBuffer {
+
+    private final TimelineEntry[] ring;
+    private int newest = -1;
+    private int size;
+    private boolean complete;
+
+    AuthorPostBuffer(int capacity, List<TimelineEntry> recent) {
+        this.ring = new TimelineEntry[capacity];
+        this.complete = recent.size() < capacity;
+        for (int i = Math.min(recent.size(), capacity) - 1; i >= 0; i--) append(recent.get(i));
+    }
+
+    synchronized void add(TimelineEntry entry) {
+        for (TimelineEntry buffered : newestFirst(size))
+            if (buffered.postId() == entry.postId()) return;
+        append(entry);
+    }
+
+    synchronized void remove(int postId) {
+        List<TimelineEntry> kept = newestFirst(size);
+        if (!kept.removeIf(entry -> entry.postId() == postId)) return;
+        newest = -1;
+        size = 0;
+        for (int i = kept.size() - 1; i >= 0; i--) append(kept.get(i));
+    }
+
+    synchronized FeedSource head(PageCursor after, int limit) {
+        List<TimelineEntry> entries = newestFirst(size);
+        entries.sort(TimelineEntry.NEWEST_FIRST);
+        if (after != null) entries.removeIf(entry -> !entry.isOlderThan(after));
+        boolean all = entries.size() <= limit;
+        return new FeedSource(all ? entries : new ArrayList<>(entries.subList(0, limit)), complete && all);
+    }
+
+    private void append(TimelineEntry entry) {
+        newest = (newest + 1) % ring.length;
+        ring[newest] = entry;
+        if (size < ring.length) size++;
+        else complete = false;
+    }
+
+    private List<TimelineEntry> newestFirst(int limit) {
+        int count = Math.min(limit, size);
+        List<TimelineEntry> entries = new ArrayList<>(count);
+        for (int i = 0; i < count; i++)
+            entries.add(ring[Math.floorMod(newest - i, ring.length)]);
+        return entries;
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.demo.service.feed;
+
+import com.example.demo.dto.PageCursor;
+import com.example.demo.dto.TimelineEntry;
+import com.example.demo.repository.PostRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Recent posts of authors that are pulled at read time instead of being fanned out to every subscriber.
+ */
+@Component
+public class AuthorPostBuffers {
+
+    private final PostRepository postRepository;
+    private final int capacity;
+
+    private final Map<Integer, AuthorPostBuffer> buffers = new ConcurrentHashMap<>();
+
+    @Autowired
+    public AuthorPostBuffers(PostRepository postRepository,
+                             @Value("${feed.author-buffer.capacity:200}") int capacity) {
+        this.postRepository = postRepository;
+        this.capacity = capacity;
+    }
+
+    public boolean isBuffered(int authorId) {
+        return buffers.containsKey(authorId);
+    }
+
+    /**
+     * @return {@code true} if this post switched its author from fan-out to pull
+     */
+    public boolean add(TimelineEntry entry) {
+        AuthorPostBuffer buffer = buffers.get(entry.authorId());
+        if (buffer != null) {
+            buffer.add(entry);
+            return false;
+        }
+
+        // Query outside the map so the bin lock is never held during I/O; a concurrent loser adds its post to the winner.
+        AuthorPostBuffer loaded = new AuthorPostBuffer(capacity,
+                postRepository.findTimelineEntries(List.of(entry.authorId()), PageRequest.of(0, capacity)));
+        buffer = buffers.putIfAbsent(entry.authorId(), loaded);
+        if (buffer == null) return true;
+        buffer.add(entry);
+        return false;
+    }
+
+    public void remove(int authorId, int postId) {
+        AuthorPostBuffer buffer = buffers.get(authorId);
+        if (buffer != null) buffer.remove(postId);
+    }
+
+    FeedSource head(int authorId, PageCursor after, int limit) {
+        AuthorPostBuffer buffer = buffers.get(authorId);
+        return buffer == null ? new FeedSource(List.of(), true) : buffer.head(after, limit);
+    }
+}
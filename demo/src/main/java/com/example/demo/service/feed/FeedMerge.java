@@ -0,0 +1,51 @@
+package com.example.demo.service.feed;
+
+import com.example.demo.dto.TimelineEntry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+
+final class FeedMerge {
+
+    private FeedMerge() {
+    }
+
+    /**
+     * K-way merges newest-first sources and returns the first {@code size} distinct entries.
+     *
+     * @return {@code null} when an incomplete source runs out before the range is filled
+     */
+    static List<TimelineEntry> merge(List<FeedSource> sources, int size) {
+        PriorityQueue<Head> heads = new PriorityQueue<>((a, b) -> TimelineEntry.NEWEST_FIRST.compare(a.entry(), b.entry()));
+        for (FeedSource source : sources) {
+            if (!source.entries().isEmpty()) heads.add(new Head(source, 0));
+            else if (!source.complete()) return null;
+        }
+
+        List<TimelineEntry> merged = new ArrayList<>();
+        int lastPostId = -1;
+        while (merged.size() < size) {
+            Head head = heads.poll();
+            if (head == null) break;
+
+            TimelineEntry entry = head.entry();
+            if (entry.postId() != lastPostId) {
+                merged.add(entry);
+                lastPostId = entry.postId();
+            }
+
+            if (head.index() + 1 < head.source().entries().size())
+                heads.add(new Head(head.source(), head.index() + 1));
+            else if (!head.source().complete() && merged.size() < size)
+                return null;
+        }
+        return merged;
+    }
+
+    private record Head(FeedSource source, int index) {
+        TimelineEntry entry() {
+            return source.entries().get(index);
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.example.demo.service.feed;
+
+import com.example.demo.dto.CursorRequest;
+import com.example.demo.dto.PageCursor;
+import com.example.demo.dto.PostView;
+import com.example.demo.service.StatsSource;
+import com.example.demo.service.cache.LruCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache of rendered feed and author post pages, invalidated by the write paths that change them.
+ * Feed pages are dropped when the reader's subscriptions change or a subscribed author posts;
+ * pages computed while an invalidation was in flight are not stored.
+ * The TTL only bounds how long a page can outlive a missed invalidation.
+ */
+@Component
+public class FeedPageCache implements StatsSource {
+
+    private static final int STRIPES = 1024;
+
+    private enum Kind { FEED, POSTS }
+
+    private record PageKey(Kind kind, int ownerId, PageCursor after, int size, Sort.Direction direction) {
+        PageKey(Kind kind, int ownerId, CursorRequest request) {
+            this(kind, ownerId, request.after(), request.size(), request.direction());
+        }
+    }
+
+    private record CachedPage(Slice<PostView> page, Collection<Integer> authorIds, long expiresAt) {
+    }
+
+    private final LruCache<PageKey, CachedPage> cache;
+    private final long ttlMillis;
+
+    private final Map<Integer, Set<PageKey>> pagesByReader = new ConcurrentHashMap<>();
+    private final Map<Integer, Set<PageKey>> pagesByAuthor = new ConcurrentHashMap<>();
+    private final AtomicLongArray readerVersions = new AtomicLongArray(STRIPES);
+    private final AtomicLongArray authorVersions = new AtomicLongArray(STRIPES);
+    private final LongAdder invalidations = new LongAdder();
+
+    @Autowired
+    public FeedPageCache(@Value("${feed.cache.max-entries:10000}") int maxEntries,
+                         @Value("${feed.cache.ttl:60s}") Duration ttl) {
+        this.cache = new LruCache<>(maxEntries, this::unindex);
+        this.ttlMillis = ttl.toMillis();
+    }
+
+    public long feedVersion(int readerId) {
+        return readerVersions.get(stripe(readerId));
+    }
+
+    public long postsVersion(int authorId) {
+        return authorVersions.get(stripe(authorId));
+    }
+
+    public Slice<PostView> getFeed(int readerId, CursorRequest request) {
+        return get(new PageKey(Kind.FEED, readerId, request));
+    }
+
+    /**
+     * @param authorIds authors whose new posts must drop this page on top of the reader's own invalidations
+     * @param version   {@link #feedVersion(int)} taken before the page was computed
+     */
+    public void putFeed(int readerId, CursorRequest request, Slice<PostView> page, Collection<Integer> authorIds, long version) {
+        PageKey key = new PageKey(Kind.FEED, readerId, request);
+        put(key, new CachedPage(page, List.copyOf(authorIds), System.currentTimeMillis() + ttlMillis));
+        if (feedVersion(readerId) != version) invalidate(key);
+    }
+
+    public Slice<PostView> getPosts(int authorId, CursorRequest request) {
+        return get(new PageKey(Kind.POSTS, authorId, request));
+    }
+
+    /**
+     * @param version {@link #postsVersion(int)} taken before the page was computed
+     */
+    public void putPosts(int authorId, CursorRequest request, Slice<PostView> page, long version) {
+        PageKey key = new PageKey(Kind.POSTS, authorId, request);
+        put(key, new CachedPage(page, List.of(authorId), System.currentTimeMillis() + ttlMillis));
+        if (postsVersion(authorId) != version) invalidate(key);
+    }
+
+    public void invalidateReader(int readerId) {
+        readerVersions.incrementAndGet(stripe(readerId));
+        Set<PageKey> keys = pagesByReader.remove(readerId);
+        if (keys != null) keys.forEach(this::invalidate);
+    }
+
+    public void invalidateAuthor(int authorId) {
+        authorVersions.incrementAndGet(stripe(authorId));
+        Set<PageKey> keys = pagesByAuthor.remove(authorId);
+        if (keys == null) return;
+        for (PageKey key : keys) {
+            if (key.kind() == Kind.FEED) readerVersions.incrementAndGet(stripe(key.ownerId()));
+            invalidate(key);
+        }
+    }
+
+    @Override
+    public String statsName() {
+        return "feedPageCache";
+    }
+
+    @Override
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = cache.stats();
+        stats.put("invalidations", invalidations.sum());
+        stats.put("ttlMillis", ttlMillis);
+        return stats;
+    }
+
+    private Slice<PostView> get(PageKey key) {
+        CachedPage cached = cache.get(key);
+        if (cached == null) return null;
+        if (cached.expiresAt() < System.currentTimeMillis()) {
+            if (cache.remove(key, cached)) unindex(key, cached);
+            return null;
+        }
+        return cached.page();
+    }
+
+    private void put(PageKey key, CachedPage page) {
+        if (key.kind() == Kind.FEED)
+            pagesByReader.computeIfAbsent(key.ownerId(), id -> ConcurrentHashMap.newKeySet()).add(key);
+        for (Integer authorId : page.authorIds())
+            pagesByAuthor.computeIfAbsent(authorId, id -> ConcurrentHashMap.newKeySet()).add(key);
+        cache.put(key, page);
+    }
+
+    private void invalidate(PageKey key) {
+        CachedPage page = cache.remove(key);
+        if (page == null) return;
+        invalidations.increment();
+        unindex(key, page);
+    }
+
+    private void unindex(PageKey key, CachedPage page) {
+        if (key.kind() == Kind.FEED) removeFromIndex(pagesByReader, key.ownerId(), key);
+        for (Integer authorId : page.authorIds()) removeFromIndex(pagesByAuthor, authorId, key);
+    }
+
+    private static void removeFromIndex(Map<Integer, Set<PageKey>> index, int id, PageKey key) {
+        index.computeIfPresent(id, (ignored, keys) -> {
+            keys.remove(key);
+            return keys.isEmpty() ? null : keys;
+        });
+    }
+
+    private static int stripe(int id) {
+        return Math.floorMod(id * 0x9E3779B9, STRIPES);
+    }
+}
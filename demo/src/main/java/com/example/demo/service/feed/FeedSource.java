@@ -0,0 +1,12 @@
+package com.example.demo.service.feed;
+
+import com.example.demo.dto.TimelineEntry;
+
+import java.util.List;
+
+/**
+ * Newest-first run of entries taken from a timeline or an author buffer.
+ * An incomplete source may have older entries it does not hold, so a merge must stop once such a source runs dry.
+ */
+record FeedSource(List<TimelineEntry> entries, boolean complete) {
+}
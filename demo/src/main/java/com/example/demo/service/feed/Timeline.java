@@ -0,0 +1,105 @@
+package com.example.demo.service.feed;
+
+import com.example.demo.dto.PageCursor;
+import com.example.demo.dto.TimelineEntry;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Bounded, newest-first list of post references for a single reader, plus the high-follower authors
+ * whose posts are pulled from {@link AuthorPostBuffers} at read time instead of being pushed here.
+ * A timeline is "complete" while it has never been trimmed, i.e. it holds every pushed post of the reader's subscriptions.
+ */
+class Timeline {
+
+    private final int capacity;
+    private final List<TimelineEntry> entries = new ArrayList<>();
+    private final Set<Integer> pulledAuthors = new HashSet<>();
+    private boolean loaded;
+    private boolean complete = true;
+
+    Timeline(int capacity) {
+        this.capacity = capacity;
+    }
+
+    synchronized boolean isLoaded() {
+        return loaded;
+    }
+
+    synchronized void load(List<TimelineEntry> recent, Set<Integer> pulled) {
+        merge(recent);
+        pulledAuthors.addAll(pulled);
+        if (recent.size() >= capacity) complete = false;
+        loaded = true;
+    }
+
+    synchronized void merge(List<TimelineEntry> recent) {
+        for (TimelineEntry entry : recent) insert(entry);
+    }
+
+    /**
+     * Merges the first {@code limit} rows of a query. A full result may leave older rows behind, so the
+     * timeline is cut at the oldest merged row and stops being complete.
+     */
+    synchronized void merge(List<TimelineEntry> recent, int limit) {
+        merge(recent);
+        if (recent.isEmpty() || recent.size() < limit) return;
+
+        TimelineEntry oldest = Collections.max(recent, TimelineEntry.NEWEST_FIRST);
+        int index = Collections.binarySearch(entries, oldest, TimelineEntry.NEWEST_FIRST);
+        int from = index >= 0 ? index + 1 : -index - 1;
+        entries.subList(from, entries.size()).clear();
+        complete = false;
+    }
+
+    synchronized void insert(TimelineEntry entry) {
+        int index = Collections.binarySearch(entries, entry, TimelineEntry.NEWEST_FIRST);
+        if (index >= 0) return;
+        index = -index - 1;
+        if (!complete && index == entries.size()) return;
+        entries.add(index, entry);
+        if (entries.size() > capacity) {
+            entries.remove(entries.size() - 1);
+            complete = false;
+        }
+    }
+
+    synchronized void removePost(int postId) {
+        entries.removeIf(entry -> entry.postId() == postId);
+    }
+
+    synchronized void removeAuthor(int authorId) {
+        entries.removeIf(entry -> entry.authorId() == authorId);
+        pulledAuthors.remove(authorId);
+    }
+
+    synchronized void pull(int authorId) {
+        entries.removeIf(entry -> entry.authorId() == authorId);
+        pulledAuthors.add(authorId);
+    }
+
+    synchronized List<Integer> pulledAuthors() {
+        return new ArrayList<>(pulledAuthors);
+    }
+
+    synchronized boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * @return up to {@code limit} entries older than {@code after}, or the newest ones when {@code after} is {@code null}
+     */
+    synchronized FeedSource head(PageCursor after, int limit) {
+        int from = 0;
+        if (after != null) {
+            int index = Collections.binarySearch(entries, new TimelineEntry(after.id(), 0, after.date()), TimelineEntry.NEWEST_FIRST);
+            from = index >= 0 ? index + 1 : -index - 1;
+        }
+        int to = Math.min(from + limit, entries.size());
+        return new FeedSource(new ArrayList<>(entries.subList(from, to)), complete && to == entries.size());
+    }
+}
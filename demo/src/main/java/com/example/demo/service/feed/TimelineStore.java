@@ -0,0 +1,176 @@
+package com.example.demo.service.feed;
+
+import com.example.demo.data.Post;
+import com.example.demo.dto.PageCursor;
+import com.example.demo.dto.TimelineEntry;
+import com.example.demo.repository.PostRepository;
+import com.example.demo.service.StatsSource;
+import com.example.demo.service.cache.LruCache;
+import com.example.demo.service.graph.SocialGraphIndex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Materialized home timelines: post ids are pushed to every subscriber when a post is written,
+ * so a feed read is a range over one precomputed list instead of a sort across all subscribed authors.
+ * Authors with more than {@code feed.fanout.follower-threshold} subscribers are not fanned out; their posts
+ * stay in {@link AuthorPostBuffers} and are merged into the reader's timeline at read time.
+ * Timelines are built lazily on first read and only kept up to date once built; at most
+ * {@code feed.timeline.max-readers} of them are kept, least recently used first out, and an evicted one
+ * is rebuilt from the database on the reader's next request.
+ */
+@Component
+public class TimelineStore implements StatsSource {
+
+    private final PostRepository postRepository;
+    private final SocialGraphIndex graph;
+    private final AuthorPostBuffers authorBuffers;
+    private final int capacity;
+    private final long followerThreshold;
+
+    private final LruCache<Integer, Timeline> timelines;
+
+    @Autowired
+    public TimelineStore(PostRepository postRepository,
+                         SocialGraphIndex graph,
+                         AuthorPostBuffers authorBuffers,
+                         @Value("${feed.timeline.capacity:500}") int capacity,
+                         @Value("${feed.fanout.follower-threshold:10000}") long followerThreshold,
+                         @Value("${feed.timeline.max-readers:100000}") int maxReaders) {
+        this.postRepository = postRepository;
+        this.graph = graph;
+        this.authorBuffers = authorBuffers;
+        this.capacity = capacity;
+        this.followerThreshold = followerThreshold;
+        this.timelines = new LruCache<>(maxReaders);
+    }
+
+    /**
+     * Fans out new posts of one author to the timelines of its subscribers.
+     *
+     * @return ids of the subscribers whose timelines these posts changed
+     */
+    public int[] onPostsAdded(int authorId, List<Post> posts) {
+        List<TimelineEntry> entries = posts.stream().map(TimelineStore::toEntry).toList();
+
+        if (authorBuffers.isBuffered(authorId)
+                || graph.subscriberCount(authorId) > followerThreshold) {
+            boolean switched = false;
+            for (TimelineEntry entry : entries) switched |= authorBuffers.add(entry);
+            if (!switched) return new int[0];
+
+            int[] subscriberIds = graph.subscribers(authorId);
+            for (int subscriberId : subscriberIds) {
+                Timeline timeline = timelines.peek(subscriberId);
+                if (timeline != null) timeline.pull(authorId);
+            }
+            return subscriberIds;
+        }
+
+        int[] subscriberIds = graph.subscribers(authorId);
+        for (int subscriberId : subscriberIds) {
+            Timeline timeline = timelines.peek(subscriberId);
+            if (timeline != null) timeline.merge(entries);
+        }
+        return subscriberIds;
+    }
+
+    /**
+     * @return ids of the subscribers whose timelines this removal changed
+     */
+    public int[] onPostRemoved(Post post) {
+        int authorId = post.getAuthor().getId();
+        if (authorBuffers.isBuffered(authorId)) {
+            authorBuffers.remove(authorId, post.getId());
+            return new int[0];
+        }
+
+        int[] subscriberIds = graph.subscribers(authorId);
+        for (int subscriberId : subscriberIds) {
+            Timeline timeline = timelines.peek(subscriberId);
+            if (timeline != null) timeline.removePost(post.getId());
+        }
+        return subscriberIds;
+    }
+
+    public void onSubscribed(int subscriberId, int authorId) {
+        Timeline timeline = timelines.peek(subscriberId);
+        if (timeline == null) return;
+
+        if (authorBuffers.isBuffered(authorId))
+            timeline.pull(authorId);
+        else
+            timeline.merge(postRepository.findTimelineEntries(List.of(authorId), PageRequest.of(0, capacity)), capacity);
+    }
+
+    public void onUnsubscribed(int subscriberId, int authorId) {
+        Timeline timeline = timelines.peek(subscriberId);
+        if (timeline != null) timeline.removeAuthor(authorId);
+    }
+
+    /**
+     * @return up to {@code size} newest-first feed entries older than {@code after},
+     * or {@code null} when the page has to be served from the database
+     */
+    public List<TimelineEntry> read(int userId, PageCursor after, int size) {
+        Timeline timeline = load(userId);
+
+        List<FeedSource> sources = new ArrayList<>();
+        sources.add(timeline.head(after, size));
+        for (Integer authorId : timeline.pulledAuthors())
+            sources.add(authorBuffers.head(authorId, after, size));
+
+        return FeedMerge.merge(sources, size);
+    }
+
+    /**
+     * @return authors whose posts are merged into this user's feed at read time
+     */
+    public List<Integer> pulledAuthors(int userId) {
+        Timeline timeline = timelines.peek(userId);
+        return timeline == null ? List.of() : timeline.pulledAuthors();
+    }
+
+    @Override
+    public String statsName() {
+        return "timelines";
+    }
+
+    @Override
+    public Map<String, Object> stats() {
+        return timelines.stats();
+    }
+
+    private Timeline load(int userId) {
+        Timeline timeline = timelines.get(userId);
+        if (timeline == null) timeline = timelines.putIfAbsent(userId, new Timeline(capacity));
+        if (!timeline.isLoaded()) {
+            synchronized (timeline) {
+                if (!timeline.isLoaded()) {
+                    List<Integer> pushedAuthors = new ArrayList<>();
+                    Set<Integer> pulledAuthors = new HashSet<>();
+                    for (int authorId : graph.subscriptions(userId)) {
+                        if (authorBuffers.isBuffered(authorId)) pulledAuthors.add(authorId);
+                        else pushedAuthors.add(authorId);
+                    }
+                    timeline.load(pushedAuthors.isEmpty() ? List.of()
+                            : postRepository.findTimelineEntries(pushedAuthors, PageRequest.of(0, capacity)),
+                            pulledAuthors);
+                }
+            }
+        }
+        return timeline;
+    }
+
+    private static TimelineEntry toEntry(Post post) {
+        return new TimelineEntry(post.getId(), post.getAuthor().getId(), post.getDate());
+    }
+}
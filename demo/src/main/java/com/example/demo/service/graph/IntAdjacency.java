@@ -0,0 +1,205 @@
+package com.example.demo.service.graph;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Directed edges stored as one ascending {@code int[]} of neighbours per node.
+ * Each node holds an immutable base array plus short sorted lists of neighbours added to and removed from it,
+ * swapped in with a CAS, so a follow or unfollow copies only the pending lists instead of the whole array.
+ * The lists are merged into the base once they grow past about the square root of its length, or when
+ * {@link #get} needs the full array. Readers never lock and an array handed out by {@link #get} never changes.
+ */
+final class IntAdjacency {
+
+    static final int[] EMPTY = new int[0];
+
+    private static final int MIN_PENDING = 32;
+
+    /**
+     * Neighbours of one node: {@code base} minus {@code removed} plus {@code added}. {@code removed} is a subset
+     * of {@code base} and {@code added} is disjoint from it.
+     */
+    private record Edges(int[] base, int[] added, int[] removed) {
+
+        int degree() {
+            return base.length + added.length - removed.length;
+        }
+
+        boolean isMerged() {
+            return added.length == 0 && removed.length == 0;
+        }
+
+        boolean contains(int neighbour) {
+            return Arrays.binarySearch(added, neighbour) >= 0
+                    || Arrays.binarySearch(base, neighbour) >= 0 && Arrays.binarySearch(removed, neighbour) < 0;
+        }
+
+        Edges merged() {
+            if (isMerged()) return this;
+            int[] merged = new int[degree()];
+            int b = 0, a = 0, r = 0, size = 0;
+            while (b < base.length || a < added.length) {
+                if (a == added.length || b < base.length && base[b] < added[a]) {
+                    int neighbour = base[b++];
+                    if (r < removed.length && removed[r] == neighbour) r++;
+                    else merged[size++] = neighbour;
+                } else {
+                    merged[size++] = added[a++];
+                }
+            }
+            return new Edges(merged, EMPTY, EMPTY);
+        }
+
+        Edges settled() {
+            int pending = added.length + removed.length;
+            return pending >= Math.max(MIN_PENDING, (int) Math.sqrt(base.length)) ? merged() : this;
+        }
+    }
+
+    private static final Edges NONE = new Edges(EMPTY, EMPTY, EMPTY);
+
+    /**
+     * Marks a node emptied and about to be unmapped; writers that see it retry on a fresh node.
+     */
+    private static final Edges DEAD = new Edges(EMPTY, EMPTY, EMPTY);
+
+    private final Map<Integer, AtomicReference<Edges>> neighbours = new ConcurrentHashMap<>();
+    private final AtomicLong edges = new AtomicLong();
+
+    int[] get(int node) {
+        AtomicReference<Edges> ref = neighbours.get(node);
+        if (ref == null) return EMPTY;
+        Edges current = ref.get();
+        if (current.isMerged()) return current.base();
+
+        Edges merged = current.merged();
+        ref.compareAndSet(current, merged);
+        return merged.base();
+    }
+
+    boolean contains(int node, int neighbour) {
+        AtomicReference<Edges> ref = neighbours.get(node);
+        return ref != null && ref.get().contains(neighbour);
+    }
+
+    int degree(int node) {
+        AtomicReference<Edges> ref = neighbours.get(node);
+        return ref == null ? 0 : ref.get().degree();
+    }
+
+    int nodes() {
+        return neighbours.size();
+    }
+
+    long edges() {
+        return edges.get();
+    }
+
+    long bytes() {
+        return edges.get() * Integer.BYTES;
+    }
+
+    boolean add(int node, int neighbour) {
+        while (true) {
+            AtomicReference<Edges> ref = neighbours.computeIfAbsent(node, key -> new AtomicReference<>(NONE));
+            Edges current = ref.get();
+            if (current == DEAD) {
+                neighbours.remove(node, ref);
+                continue;
+            }
+            if (current.contains(neighbour)) return false;
+
+            int removedAt = Arrays.binarySearch(current.removed(), neighbour);
+            Edges next = removedAt >= 0
+                    ? new Edges(current.base(), current.added(), without(current.removed(), removedAt))
+                    : new Edges(current.base(), with(current.added(), neighbour), current.removed());
+            if (ref.compareAndSet(current, next.settled())) {
+                edges.incrementAndGet();
+                return true;
+            }
+        }
+    }
+
+    boolean remove(int node, int neighbour) {
+        AtomicReference<Edges> ref = neighbours.get(node);
+        if (ref == null) return false;
+        while (true) {
+            Edges current = ref.get();
+            if (!current.contains(neighbour)) return false;
+
+            int addedAt = Arrays.binarySearch(current.added(), neighbour);
+            Edges next = addedAt >= 0
+                    ? new Edges(current.base(), without(current.added(), addedAt), current.removed())
+                    : new Edges(current.base(), current.added(), with(current.removed(), neighbour));
+            next = next.degree() == 0 ? DEAD : next.settled();
+            if (ref.compareAndSet(current, next)) {
+                edges.decrementAndGet();
+                if (next == DEAD) neighbours.remove(node, ref);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Replaces the contents with the edges collected by {@code builder}.
+     */
+    void load(Builder builder) {
+        neighbours.clear();
+        long[] pairs = Arrays.copyOf(builder.pairs, builder.size);
+        Arrays.sort(pairs);
+
+        long count = 0;
+        int start = 0;
+        while (start < pairs.length) {
+            int node = (int) (pairs[start] >>> 32);
+            int end = start;
+            while (end < pairs.length && (int) (pairs[end] >>> 32) == node) end++;
+
+            int[] list = new int[end - start];
+            int size = 0;
+            for (int i = start; i < end; i++) {
+                if (i > start && pairs[i] == pairs[i - 1]) continue;
+                list[size++] = (int) pairs[i];
+            }
+            neighbours.put(node, new AtomicReference<>(new Edges(size == list.length ? list : Arrays.copyOf(list, size), EMPTY, EMPTY)));
+            count += size;
+            start = end;
+        }
+        edges.set(count);
+    }
+
+    private static int[] with(int[] sorted, int value) {
+        int insertAt = -Arrays.binarySearch(sorted, value) - 1;
+        int[] next = new int[sorted.length + 1];
+        System.arraycopy(sorted, 0, next, 0, insertAt);
+        next[insertAt] = value;
+        System.arraycopy(sorted, insertAt, next, insertAt + 1, sorted.length - insertAt);
+        return next;
+    }
+
+    private static int[] without(int[] sorted, int index) {
+        int[] next = new int[sorted.length - 1];
+        System.arraycopy(sorted, 0, next, 0, index);
+        System.arraycopy(sorted, index + 1, next, index, sorted.length - index - 1);
+        return next;
+    }
+
+    /**
+     * Collects edges for a bulk {@link #load}, packing each one into a long so that sorting
+     * groups them by node with neighbours in ascending order. Node ids are expected to be non-negative.
+     */
+    static final class Builder {
+
+        private long[] pairs = new long[1024];
+        private int size;
+
+        void add(int node, int neighbour) {
+            if (size == pairs.length) pairs = Arrays.copyOf(pairs, size * 2);
+            pairs[size++] = ((long) node << 32) | (neighbour & 0xFFFFFFFFL);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.demo.service.graph;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing map from non-negative id to count. Not thread-safe; parallel counts
+ * are kept in separate instances and combined with {@link #addAll}.
+ */
+final class IntCounter {
+
+    interface Visitor {
+        void accept(int id, int count);
+    }
+
+    private static final int FREE = -1;
+
+    private int[] keys;
+    private int[] counts;
+    private int size;
+
+    IntCounter() {
+        this(16);
+    }
+
+    IntCounter(int expected) {
+        int capacity = Integer.highestOneBit(Math.max(16, expected * 2 - 1)) << 1;
+        keys = new int[capacity];
+        counts = new int[capacity];
+        Arrays.fill(keys, FREE);
+    }
+
+    int size() {
+        return size;
+    }
+
+    void increment(int id) {
+        add(id, 1);
+    }
+
+    void add(int id, int count) {
+        int slot = slot(keys, id);
+        if (keys[slot] == FREE) {
+            keys[slot] = id;
+            counts[slot] = count;
+            if (++size * 2 > keys.length) grow();
+            return;
+        }
+        counts[slot] += count;
+    }
+
+    int get(int id) {
+        int slot = slot(keys, id);
+        return keys[slot] == FREE ? 0 : counts[slot];
+    }
+
+    void addAll(IntCounter other) {
+        for (int i = 0; i < other.keys.length; i++)
+            if (other.keys[i] != FREE) add(other.keys[i], other.counts[i]);
+    }
+
+    void forEach(Visitor visitor) {
+        for (int i = 0; i < keys.length; i++)
+            if (keys[i] != FREE) visitor.accept(keys[i], counts[i]);
+    }
+
+    private void grow() {
+        int[] oldKeys = keys;
+        int[] oldCounts = counts;
+        keys = new int[oldKeys.length * 2];
+        counts = new int[oldKeys.length * 2];
+        Arrays.fill(keys, FREE);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] == FREE) continue;
+            int slot = slot(keys, oldKeys[i]);
+            keys[slot] = oldKeys[i];
+            counts[slot] = oldCounts[i];
+        }
+    }
+
+    private static int slot(int[] keys, int id) {
+        int mask = keys.length - 1;
+        int hash = id * 0x9E3779B9;
+        int slot = (hash ^ hash >>> 16) & mask;
+        while (keys[slot] != FREE && keys[slot] != id) slot = (slot + 1) & mask;
+        return slot;
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.demo.service.graph;
+
+import java.util.Arrays;
+
+/**
+ * Intersections of ascending id arrays. Lists of similar length are merged in one linear pass;
+ * when one list is much longer, each id of the shorter one is located in it by galloping search,
+ * which costs {@code O(small * log(large / small))} instead of {@code O(small + large)}.
+ */
+public final class IntSets {
+
+    /**
+     * Size of the intersection and its first ids in ascending order.
+     */
+    public record Intersection(int count, int[] first) {
+    }
+
+    private static final int GALLOP_RATIO = 32;
+
+    private IntSets() {
+    }
+
+    /**
+     * @return how many ids {@code a} and {@code b} share, with up to {@code limit} of the smallest
+     */
+    public static Intersection intersect(int[] a, int[] b, int limit) {
+        if (a.length > b.length) {
+            int[] swap = a;
+            a = b;
+            b = swap;
+        }
+        int[] first = new int[Math.min(Math.max(limit, 0), a.length)];
+        int count = (long) a.length * GALLOP_RATIO < b.length ? gallop(a, b, first) : merge(a, b, first);
+        return new Intersection(count, count < first.length ? Arrays.copyOf(first, count) : first);
+    }
+
+    private static int merge(int[] small, int[] large, int[] first) {
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < small.length && j < large.length) {
+            if (small[i] < large[j]) i++;
+            else if (small[i] > large[j]) j++;
+            else {
+                if (count < first.length) first[count] = small[i];
+                count++;
+                i++;
+                j++;
+            }
+        }
+        return count;
+    }
+
+    private static int gallop(int[] small, int[] large, int[] first) {
+        int count = 0;
+        int from = 0;
+        for (int id : small) {
+            int step = 1;
+            int to = from;
+            while (to < large.length && large[to] < id) {
+                from = to + 1;
+                to += step;
+                step <<= 1;
+            }
+            if (from >= large.length) break;
+
+            int position = Arrays.binarySearch(large, from, Math.min(to + 1, large.length), id);
+            if (position >= 0) {
+                if (count < first.length) first[count] = id;
+                count++;
+                from = position + 1;
+            }
+            else from = -position - 1;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.demo.service.graph;
+
+import com.example.demo.service.AfterCommit;
+import com.example.demo.service.StatsSource;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Subscriptions and friendships held in memory as sorted id arrays, so membership checks and
+ * neighbour lists do not touch the database. Loaded from {@code user_subs} and {@code friendship} before the
+ * application starts serving and kept current by the service write paths; changes made inside
+ * a transaction are applied once it commits.
+ * <p>
+ * Arrays returned by this class are shared and must not be modified.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class SocialGraphIndex implements StatsSource {
+
+    private static final Logger log = LoggerFactory.getLogger(SocialGraphIndex.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final IntAdjacency subscriptions = new IntAdjacency();
+    private final IntAdjacency subscribers = new IntAdjacency();
+    private final IntAdjacency friends = new IntAdjacency();
+
+    @Autowired
+    public SocialGraphIndex(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void load() {
+        long started = System.currentTimeMillis();
+
+        IntAdjacency.Builder out = new IntAdjacency.Builder();
+        IntAdjacency.Builder in = new IntAdjacency.Builder();
+        jdbcTemplate.query("select follower_id, owner_id from user_subs", rs -> {
+            int followerId = rs.getInt(1);
+            int ownerId = rs.getInt(2);
+            out.add(followerId, ownerId);
+            in.add(ownerId, followerId);
+        });
+        subscriptions.load(out);
+        subscribers.load(in);
+
+        IntAdjacency.Builder both = new IntAdjacency.Builder();
+        jdbcTemplate.query("select low_id, high_id from friendship", rs -> {
+            int lowId = rs.getInt(1);
+            int highId = rs.getInt(2);
+            both.add(lowId, highId);
+            both.add(highId, lowId);
+        });
+        friends.load(both);
+
+        log.info("Loaded {} subscriptions and {} friendships in {} ms",
+                subscriptions.edges(), friends.edges() / 2, System.currentTimeMillis() - started);
+    }
+
+    public boolean isSubscribed(int subscriberId, int ownerId) {
+        return subscriptions.contains(subscriberId, ownerId);
+    }
+
+    public boolean areFriends(int userId, int otherId) {
+        return friends.contains(userId, otherId);
+    }
+
+    /**
+     * @return ids of the users {@code userId} is subscribed to, ascending
+     */
+    public int[] subscriptions(int userId) {
+        return subscriptions.get(userId);
+    }
+
+    /**
+     * @return ids of the users subscribed to {@code userId}, ascending
+     */
+    public int[] subscribers(int userId) {
+        return subscribers.get(userId);
+    }
+
+    /**
+     * @return ids of the friends of {@code userId}, ascending
+     */
+    public int[] friends(int userId) {
+        return friends.get(userId);
+    }
+
+    public int subscriberCount(int userId) {
+        return subscribers.degree(userId);
+    }
+
+    public void subscribe(int subscriberId, int ownerId) {
+        AfterCommit.run(() -> {
+            subscriptions.add(subscriberId, ownerId);
+            subscribers.add(ownerId, subscriberId);
+        });
+    }
+
+    public void unsubscribe(int subscriberId, int ownerId) {
+        AfterCommit.run(() -> {
+            subscriptions.remove(subscriberId, ownerId);
+            subscribers.remove(ownerId, subscriberId);
+        });
+    }
+
+    public void addFriends(int userId, int otherId) {
+        AfterCommit.run(() -> {
+            friends.add(userId, otherId);
+            friends.add(otherId, userId);
+        });
+    }
+
+    public void removeFriends(int userId, int otherId) {
+        AfterCommit.run(() -> {
+            friends.remove(userId, otherId);
+            friends.remove(otherId, userId);
+        });
+    }
+
+    @Override
+    public String statsName() {
+        return "graph";
+    }
+
+    @Override
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("users", Math.max(subscriptions.nodes(), subscribers.nodes()));
+        stats.put("subscriptions", subscriptions.edges());
+        stats.put("friendships", friends.edges() / 2);
+        stats.put("bytes", subscriptions.bytes() + subscribers.bytes() + friends.bytes());
+        return stats;
+    }
+}
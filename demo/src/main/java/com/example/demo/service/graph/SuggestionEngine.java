@@ -0,0 +1,150 @@
+package com.example.demo.service.graph;
+
+import com.example.demo.dto.Suggestion;
+import com.example.demo.dto.UserRef;
+import com.example.demo.repository.UserRepository;
+import com.example.demo.service.StatsSource;
+import com.example.demo.service.cache.LruCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntFunction;
+
+/**
+ * "People you may know": friends of friends and users subscribed to the same authors, ranked by
+ * {@code friend-weight * mutualFriends + mutualSubscriptions}. Counted over {@link SocialGraphIndex}
+ * in the fork-join pool and cached per user for up to {@code suggestions.max-age}; users that became
+ * friends or subscriptions in the meantime are filtered out of a cached list on read.
+ */
+@Component
+public class SuggestionEngine implements StatsSource {
+
+    private record Ranked(int id, int mutualFriends, int mutualSubscriptions, long score) {
+    }
+
+    private record Computed(List<Suggestion> suggestions, long computedAt) {
+    }
+
+    private static final Comparator<Ranked> BEST_FIRST = Comparator.comparingLong(Ranked::score).reversed()
+            .thenComparingInt(Ranked::id);
+
+    private final SocialGraphIndex graph;
+    private final UserRepository userRepository;
+    private final int limit;
+    private final long maxAgeMillis;
+    private final int friendWeight;
+    private final int maxHubDegree;
+    private final long parallelGrain;
+    private final LruCache<Integer, Computed> cache;
+
+    private final LongAdder computations = new LongAdder();
+    private final LongAdder computeMillis = new LongAdder();
+
+    @Autowired
+    public SuggestionEngine(SocialGraphIndex graph,
+                            UserRepository userRepository,
+                            @Value("${suggestions.limit:50}") int limit,
+                            @Value("${suggestions.max-age:5m}") Duration maxAge,
+                            @Value("${suggestions.friend-weight:2}") int friendWeight,
+                            @Value("${suggestions.max-hub-degree:10000}") int maxHubDegree,
+                            @Value("${suggestions.parallel-grain:20000}") long parallelGrain,
+                            @Value("${suggestions.cache.max-entries:10000}") int cacheSize) {
+        this.graph = graph;
+        this.userRepository = userRepository;
+        this.limit = limit;
+        this.maxAgeMillis = maxAge.toMillis();
+        this.friendWeight = friendWeight;
+        this.maxHubDegree = maxHubDegree;
+        this.parallelGrain = parallelGrain;
+        this.cache = new LruCache<>(cacheSize);
+    }
+
+    /**
+     * @return up to {@code size} suggestions for {@code userId}, best first
+     */
+    public List<Suggestion> suggest(int userId, int size) throws IllegalArgumentException {
+        if (size < 1 || size > limit) throw new IllegalArgumentException("Size must be between 1 and " + limit);
+
+        long now = System.currentTimeMillis();
+        Computed computed = cache.get(userId);
+        if (computed == null || now - computed.computedAt() > maxAgeMillis) {
+            computed = new Computed(compute(userId), now);
+            cache.put(userId, computed);
+            computeMillis.add(System.currentTimeMillis() - now);
+        }
+
+        List<Suggestion> suggestions = new ArrayList<>(size);
+        for (Suggestion suggestion : computed.suggestions()) {
+            if (graph.areFriends(userId, suggestion.id()) || graph.isSubscribed(userId, suggestion.id())) continue;
+            suggestions.add(suggestion);
+            if (suggestions.size() == size) break;
+        }
+        return suggestions;
+    }
+
+    private List<Suggestion> compute(int userId) {
+        computations.increment();
+        int[] friends = graph.friends(userId);
+        int[] subscriptions = graph.subscriptions(userId);
+
+        IntCounter mutualFriends = countTwoHops(friends, graph::friends);
+        IntCounter mutualSubscriptions = countTwoHops(subscriptions, graph::subscribers);
+
+        PriorityQueue<Ranked> top = new PriorityQueue<>(BEST_FIRST.reversed());
+        IntCounter.Visitor offer = (id, ignored) -> {
+            if (id == userId || Arrays.binarySearch(friends, id) >= 0 || Arrays.binarySearch(subscriptions, id) >= 0) return;
+            int byFriends = mutualFriends.get(id);
+            int bySubscriptions = mutualSubscriptions.get(id);
+            Ranked ranked = new Ranked(id, byFriends, bySubscriptions, (long) friendWeight * byFriends + bySubscriptions);
+            if (top.size() < limit) top.add(ranked);
+            else if (BEST_FIRST.compare(ranked, top.peek()) < 0) {
+                top.poll();
+                top.add(ranked);
+            }
+        };
+        mutualFriends.forEach(offer);
+        mutualSubscriptions.forEach((id, count) -> {
+            if (mutualFriends.get(id) == 0) offer.accept(id, count);
+        });
+
+        List<Ranked> ranked = new ArrayList<>(top);
+        ranked.sort(BEST_FIRST);
+        if (ranked.isEmpty()) return List.of();
+
+        Map<Integer, String> usernames = new HashMap<>();
+        for (UserRef ref : userRepository.findRefsByIdIn(ranked.stream().map(Ranked::id).toList()))
+            usernames.put(ref.id(), ref.username());
+
+        List<Suggestion> suggestions = new ArrayList<>(ranked.size());
+        for (Ranked candidate : ranked) {
+            String username = usernames.get(candidate.id());
+            if (username != null)
+                suggestions.add(new Suggestion(candidate.id(), username, candidate.mutualFriends(), candidate.mutualSubscriptions()));
+        }
+        return suggestions;
+    }
+
+    private IntCounter countTwoHops(int[] via, IntFunction<int[]> neighbours) {
+        TwoHopCount task = TwoHopCount.forkable(via, neighbours, maxHubDegree, parallelGrain);
+        return task == null ? TwoHopCount.count(via, neighbours, maxHubDegree) : ForkJoinPool.commonPool().invoke(task);
+    }
+
+    @Override
+    public String statsName() {
+        return "suggestions";
+    }
+
+    @Override
+    public Map<String, Object> stats() {
+        long count = computations.sum();
+        Map<String, Object> stats = new LinkedHashMap<>(cache.stats());
+        stats.put("computations", count);
+        stats.put("averageComputeMillis", count == 0 ? 0.0 : (double) computeMillis.sum() / count);
+        return stats;
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.demo.service.graph;
+
+import java.util.concurrent.RecursiveTask;
+import java.util.function.IntFunction;
+
+/**
+ * Counts how many of the {@code via} nodes lead to each node one hop further.
+ * Splits the {@code via} range until a part covers at most {@code grain} edges and counts the parts in parallel.
+ * Nodes with more than {@code maxDegree} neighbours are skipped: they connect almost everyone and say little.
+ */
+final class TwoHopCount extends RecursiveTask<IntCounter> {
+
+    private final int[] via;
+    private final long[] work;
+    private final int from;
+    private final int to;
+    private final IntFunction<int[]> neighbours;
+    private final long grain;
+
+    private TwoHopCount(int[] via, long[] work, int from, int to, IntFunction<int[]> neighbours, long grain) {
+        this.via = via;
+        this.work = work;
+        this.from = from;
+        this.to = to;
+        this.neighbours = neighbours;
+        this.grain = grain;
+    }
+
+    /**
+     * @return a task over all of {@code via}, or {@code null} when there are fewer than {@code grain} edges
+     * and counting on the calling thread is cheaper
+     */
+    static TwoHopCount forkable(int[] via, IntFunction<int[]> neighbours, int maxDegree, long grain) {
+        long[] work = new long[via.length + 1];
+        for (int i = 0; i < via.length; i++) {
+            int degree = neighbours.apply(via[i]).length;
+            work[i + 1] = work[i] + (degree > maxDegree ? 0 : degree);
+        }
+        return work[via.length] < grain ? null : new TwoHopCount(via, work, 0, via.length, neighbours, grain);
+    }
+
+    static IntCounter count(int[] via, IntFunction<int[]> neighbours, int maxDegree) {
+        IntCounter counter = new IntCounter();
+        for (int node : via) {
+            int[] next = neighbours.apply(node);
+            if (next.length > maxDegree) continue;
+            for (int id : next) counter.increment(id);
+        }
+        return counter;
+    }
+
+    @Override
+    protected IntCounter compute() {
+        if (to - from == 1 || work[to] - work[from] <= grain) {
+            IntCounter counter = new IntCounter((int) Math.min(work[to] - work[from], 1 << 20));
+            for (int i = from; i < to; i++) {
+                if (work[i + 1] == work[i]) continue;
+                for (int id : neighbours.apply(via[i])) counter.increment(id);
+            }
+            return counter;
+        }
+
+        int middle = (from + to) >>> 1;
+        TwoHopCount left = new TwoHopCount(via, work, from, middle, neighbours, grain);
+        left.fork();
+        IntCounter right = new TwoHopCount(via, work, middle, to, neighbours, grain).compute();
+        IntCounter counts = left.join();
+        if (counts.size() < right.size()) {
+            right.addAll(counts);
+            return right;
+        }
+        counts.addAll(right);
+        return counts;
+    }
+}
@@ -0,0 +1,389 @@
+package com.example.demo.service.hot;
+
+import com.example.demo.dto.PageCursor;
+import com.example.demo.dto.PostView;
+import com.example.demo.service.StatsSource;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Opt-in hot tier for recent posts ({@code hot-posts.enabled}), held as binary records in direct buffers
+ * so that millions of posts cost the heap only two primitive indexes: post id and author id to record address.
+ * <p>
+ * The store is a window over the newest posts: when it is full the oldest segment is dropped, and
+ * {@code missingUpTo} remembers the newest date that may have gone with it. Any newest-first page whose
+ * rows are all newer than that is complete, so {@link #page} either answers exactly what the database
+ * would or returns {@code null}. Individual posts not found here are simply looked up in the database.
+ * <p>
+ * The contents are written to {@code hot-posts.snapshot-file} on shutdown and read back on startup, then
+ * topped up with newer rows from the database; the file is deleted once read, so a process that dies
+ * without writing it rebuilds from the database instead of trusting stale data.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class HotPostStore implements StatsSource {
+
+    private static final Logger log = LoggerFactory.getLogger(HotPostStore.class);
+
+    private static final int SNAPSHOT_MAGIC = 0x48505331;
+
+    private static final String SELECT_POSTS = "select p.post_id, p.date, p.headline, p.content, u.user_id, u.username " +
+            "from post p join sm_user u on u.user_id = p.user_id where p.post_id > ? order by p.post_id limit ?";
+
+    private final boolean enabled;
+    private final JdbcTemplate jdbcTemplate;
+    private final Path snapshotFile;
+    private final int warmRows;
+    private final int warmChunkSize;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final PostRecordLog records;
+    private final IntLongMap byId = new IntLongMap();
+    private final IntLongMap authorHeads = new IntLongMap();
+
+    private boolean complete = true;
+    private long missingSeconds = Long.MIN_VALUE;
+    private int missingNanos;
+    private int maxId;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder pagesServed = new LongAdder();
+    private final LongAdder pagesMissed = new LongAdder();
+    private final LongAdder droppedSegments = new LongAdder();
+
+    @Autowired
+    public HotPostStore(@Value("${hot-posts.enabled:false}") boolean enabled,
+                        @Value("${hot-posts.capacity:1GB}") DataSize capacity,
+                        @Value("${hot-posts.segment-size:16MB}") DataSize segmentSize,
+                        @Value("${hot-posts.snapshot-file:hot-posts.snapshot}") String snapshotFile,
+                        @Value("${hot-posts.warm.rows:1000000}") int warmRows,
+                        @Value("${hot-posts.warm.chunk-size:5000}") int warmChunkSize,
+                        JdbcTemplate jdbcTemplate) {
+        this.enabled = enabled;
+        this.jdbcTemplate = jdbcTemplate;
+        this.snapshotFile = Path.of(snapshotFile);
+        this.warmRows = warmRows;
+        this.warmChunkSize = warmChunkSize;
+
+        int segmentBytes = (int) Math.min(Math.max(segmentSize.toBytes(), 64 * 1024), Integer.MAX_VALUE - 8);
+        int segmentCount = (int) Math.max(2, capacity.toBytes() / segmentBytes);
+        this.records = new PostRecordLog(segmentBytes, segmentCount, this::onDrop);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @PostConstruct
+    public void load() {
+        if (!enabled) return;
+        long started = System.currentTimeMillis();
+
+        boolean fromSnapshot = false;
+        if (Files.exists(snapshotFile)) {
+            try {
+                readSnapshot();
+                Integer newestId = jdbcTemplate.queryForObject("select max(post_id) from post", Integer.class);
+                if (newestId == null || newestId < maxId) throw new IOException("it is newer than the database");
+                fromSnapshot = true;
+            }
+            catch (IOException e) {
+                log.warn("Ignoring hot post snapshot {}: {}", snapshotFile, e.getMessage());
+                reset();
+            }
+            try {
+                Files.delete(snapshotFile);
+            }
+            catch (IOException e) {
+                log.warn("Could not delete hot post snapshot {}", snapshotFile, e);
+            }
+        }
+
+        int afterId = fromSnapshot ? maxId : warmFloor();
+        int loaded = 0;
+        while (true) {
+            List<PostView> chunk = jdbcTemplate.query(SELECT_POSTS, (rs, row) -> new PostView(rs.getInt(1),
+                    rs.getObject(2, LocalDateTime.class), rs.getString(3), rs.getString(4), rs.getInt(5), rs.getString(6)),
+                    afterId, warmChunkSize);
+            for (PostView post : chunk) add(post);
+            loaded += chunk.size();
+            if (chunk.size() < warmChunkSize) break;
+            afterId = chunk.get(chunk.size() - 1).id();
+        }
+
+        log.info("Loaded {} hot posts ({} from the database) in {} ms",
+                byId.size(), loaded, System.currentTimeMillis() - started);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (!enabled) return;
+        try {
+            writeSnapshot();
+        }
+        catch (IOException e) {
+            log.error("Could not write hot post snapshot {}", snapshotFile, e);
+        }
+    }
+
+    public void add(PostView post) {
+        if (!enabled) return;
+        byte[] headline = post.headline() == null ? null : bytes(post.headline());
+        byte[] content = bytes(post.content());
+        byte[] username = bytes(post.authorUsername());
+
+        lock.writeLock().lock();
+        try {
+            if (records.isLive(byId.get(post.id()))) return;
+
+            long address = records.append(post.id(), post.authorId(), post.date(), headline, content, username);
+            if (address == PostRecordLog.NONE) {
+                markMissing(post.date().toEpochSecond(ZoneOffset.UTC), post.date().getNano());
+                return;
+            }
+            byId.put(post.id(), address);
+            maxId = Math.max(maxId, post.id());
+            link(post.authorId(), address);
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(int postId) {
+        if (!enabled) return;
+        lock.writeLock().lock();
+        try {
+            long address = byId.get(postId);
+            if (!records.isLive(address)) return;
+            records.markDeleted(address);
+            byId.remove(postId);
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return the posts among {@code ids} held here, by id; the map is empty when the store is disabled
+     */
+    public Map<Integer, PostView> getAll(Collection<Integer> ids) {
+        Map<Integer, PostView> posts = new HashMap<>();
+        if (!enabled) return posts;
+
+        lock.readLock().lock();
+        try {
+            for (Integer id : ids) {
+                long address = byId.get(id);
+                if (records.isLive(address)) posts.put(id, records.view(address));
+            }
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+        hits.add(posts.size());
+        misses.add(ids.size() - posts.size());
+        return posts;
+    }
+
+    /**
+     * Newest-first page of posts by {@code authorIds} strictly before {@code before}, ordered by date and id.
+     *
+     * @param before {@code null} for the first page
+     * @return up to {@code limit} posts, or {@code null} if some of them may have been dropped from the store
+     */
+    public List<PostView> page(int[] authorIds, PageCursor before, int limit) {
+        if (!enabled) return null;
+
+        long beforeSeconds = before == null ? 0 : before.date().toEpochSecond(ZoneOffset.UTC);
+        int beforeNanos = before == null ? 0 : before.date().getNano();
+
+        lock.readLock().lock();
+        try {
+            List<Long> candidates = new ArrayList<>();
+            for (int authorId : authorIds) {
+                int taken = 0;
+                for (long address = authorHeads.get(authorId); taken < limit && records.isLive(address); address = records.prev(address)) {
+                    if (records.isDeleted(address)) continue;
+                    if (before != null && records.compare(address, beforeSeconds, beforeNanos, before.id()) >= 0) continue;
+                    if (!complete && records.compare(address, missingSeconds, missingNanos, Integer.MAX_VALUE) <= 0) break;
+                    candidates.add(address);
+                    taken++;
+                }
+            }
+
+            if (candidates.size() < limit && !complete) {
+                pagesMissed.increment();
+                return null;
+            }
+
+            candidates.sort((a, b) -> records.compare(b, a));
+            List<PostView> posts = new ArrayList<>(Math.min(limit, candidates.size()));
+            for (Long address : candidates.subList(0, Math.min(limit, candidates.size()))) posts.add(records.view(address));
+            pagesServed.increment();
+            return posts;
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public String statsName() {
+        return "hotPosts";
+    }
+
+    @Override
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        lock.readLock().lock();
+        try {
+            stats.put("posts", byId.size());
+            stats.put("authors", authorHeads.size());
+            stats.put("complete", complete);
+            stats.put("offHeapBytes", records.allocatedBytes());
+            stats.put("usedBytes", records.usedBytes());
+            stats.put("indexBytes", byId.bytes() + authorHeads.bytes());
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+        stats.put("hits", hits.sum());
+        stats.put("misses", misses.sum());
+        stats.put("pagesServed", pagesServed.sum());
+        stats.put("pagesMissed", pagesMissed.sum());
+        stats.put("droppedSegments", droppedSegments.sum());
+        return stats;
+    }
+
+    void writeSnapshot() throws IOException {
+        Path temp = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+        lock.readLock().lock();
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(Integer.BYTES + 1 + Long.BYTES + Integer.BYTES)
+                    .putInt(SNAPSHOT_MAGIC).put((byte) (complete ? 1 : 0)).putLong(missingSeconds).putInt(missingNanos).flip();
+            while (header.hasRemaining()) channel.write(header);
+            records.writeTo(channel);
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+        Files.move(temp, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    void readSnapshot() throws IOException {
+        lock.writeLock().lock();
+        try (FileChannel channel = FileChannel.open(snapshotFile, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(Integer.BYTES + 1 + Long.BYTES + Integer.BYTES);
+            while (header.hasRemaining())
+                if (channel.read(header) < 0) throw new IOException("Snapshot is truncated");
+            header.flip();
+            if (header.getInt() != SNAPSHOT_MAGIC) throw new IOException("Not a hot post snapshot");
+            complete = header.get() == 1;
+            missingSeconds = header.getLong();
+            missingNanos = header.getInt();
+
+            records.readFrom(channel);
+            byId.clear();
+            authorHeads.clear();
+            maxId = 0;
+            records.forEach(address -> {
+                if (records.isDeleted(address)) return;
+                int id = records.id(address);
+                byId.put(id, address);
+                maxId = Math.max(maxId, id);
+                long head = authorHeads.get(records.authorId(address));
+                if (!records.isLive(head) || records.compare(address, head) > 0) authorHeads.put(records.authorId(address), address);
+            });
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return the id after which the newest {@code hot-posts.warm.rows} posts start
+     */
+    private int warmFloor() {
+        List<Integer> floor = jdbcTemplate.queryForList("select post_id from post order by post_id desc offset ? limit 1",
+                Integer.class, warmRows);
+        if (floor.isEmpty()) return 0;
+
+        LocalDateTime missing = jdbcTemplate.queryForObject("select max(date) from post where post_id <= ?",
+                LocalDateTime.class, floor.get(0));
+        if (missing != null) markMissing(missing.toEpochSecond(ZoneOffset.UTC), missing.getNano());
+        return floor.get(0);
+    }
+
+    private void reset() {
+        records.clear();
+        byId.clear();
+        authorHeads.clear();
+        complete = true;
+        missingSeconds = Long.MIN_VALUE;
+        missingNanos = 0;
+        maxId = 0;
+    }
+
+    /**
+     * Puts a new record into its author's list, which is kept newest first.
+     */
+    private void link(int authorId, long address) {
+        long head = authorHeads.get(authorId);
+        if (!records.isLive(head) || records.compare(address, head) > 0) {
+            records.setPrev(address, records.isLive(head) ? head : PostRecordLog.NONE);
+            authorHeads.put(authorId, address);
+            return;
+        }
+        long node = head;
+        while (records.isLive(records.prev(node)) && records.compare(records.prev(node), address) > 0) node = records.prev(node);
+        records.setPrev(address, records.isLive(records.prev(node)) ? records.prev(node) : PostRecordLog.NONE);
+        records.setPrev(node, address);
+    }
+
+    private void onDrop(int seq) {
+        droppedSegments.increment();
+        records.forEach(seq, address -> {
+            byId.remove(records.id(address), address);
+            authorHeads.remove(records.authorId(address), address);
+            markMissing(records.seconds(address), records.nanos(address));
+        });
+    }
+
+    private void markMissing(long seconds, int nanos) {
+        if (complete || seconds > missingSeconds || seconds == missingSeconds && nanos > missingNanos) {
+            missingSeconds = seconds;
+            missingNanos = nanos;
+        }
+        complete = false;
+    }
+
+    private static byte[] bytes(String value) {
+        return value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.demo.service.hot;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing map from non-negative int key to long value, two primitive arrays and no per-entry objects.
+ * Removal shifts the following entries back, so lookups never see tombstones. Not thread-safe.
+ */
+final class IntLongMap {
+
+    static final long MISSING = -1;
+
+    private static final int FREE = -1;
+
+    private int[] keys;
+    private long[] values;
+    private int size;
+
+    IntLongMap() {
+        this(16);
+    }
+
+    IntLongMap(int expected) {
+        int capacity = Integer.highestOneBit(Math.max(16, expected * 2 - 1)) << 1;
+        keys = new int[capacity];
+        values = new long[capacity];
+        Arrays.fill(keys, FREE);
+    }
+
+    int size() {
+        return size;
+    }
+
+    long bytes() {
+        return (long) keys.length * (Integer.BYTES + Long.BYTES);
+    }
+
+    long get(int key) {
+        int slot = slot(keys, key);
+        return keys[slot] == FREE ? MISSING : values[slot];
+    }
+
+    void put(int key, long value) {
+        int slot = slot(keys, key);
+        values[slot] = value;
+        if (keys[slot] == FREE) {
+            keys[slot] = key;
+            if (++size * 2 > keys.length) grow();
+        }
+    }
+
+    /**
+     * Removes {@code key} only while it still maps to {@code value}.
+     */
+    boolean remove(int key, long value) {
+        int slot = slot(keys, key);
+        if (keys[slot] == FREE || values[slot] != value) return false;
+        delete(slot);
+        return true;
+    }
+
+    boolean remove(int key) {
+        int slot = slot(keys, key);
+        if (keys[slot] == FREE) return false;
+        delete(slot);
+        return true;
+    }
+
+    void clear() {
+        Arrays.fill(keys, FREE);
+        size = 0;
+    }
+
+    private void delete(int slot) {
+        int mask = keys.length - 1;
+        int hole = slot;
+        int next = (hole + 1) & mask;
+        while (keys[next] != FREE) {
+            int home = home(keys[next], mask);
+            // the entry at next may fill the hole unless its home lies cyclically in (hole, next]
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = keys[next];
+                values[hole] = values[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[hole] = FREE;
+        size--;
+    }
+
+    private void grow() {
+        int[] oldKeys = keys;
+        long[] oldValues = values;
+        keys = new int[oldKeys.length * 2];
+        values = new long[oldKeys.length * 2];
+        Arrays.fill(keys, FREE);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] == FREE) continue;
+            int slot = slot(keys, oldKeys[i]);
+            keys[slot] = oldKeys[i];
+            values[slot] = oldValues[i];
+        }
+    }
+
+    private static int home(int key, int mask) {
+        int hash = key * 0x9E3779B9;
+        return (hash ^ hash >>> 16) & mask;
+    }
+
+    private static int slot(int[] keys, int key) {
+        int mask = keys.length - 1;
+        int slot = home(key, mask);
+        while (keys[slot] != FREE && keys[slot] != key) slot = (slot + 1) & mask;
+        return slot;
+    }
+}
@@ -0,0 +1,275 @@
+package com.example.demo.service.hot;
+
+import com.example.demo.dto.PostView;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+import java.util.function.LongConsumer;
+
+/**
+ * Append-only log of binary post records in a ring of direct buffers outside the Java heap.
+ * <p>
+ * A record is addressed by {@code segment sequence << 32 | offset}. Sequences only grow; segment
+ * {@code seq} lives in slot {@code seq % segmentCount}, and when the ring is full the oldest segment is
+ * handed to {@code onDrop} and then overwritten, which makes every address into it stale.
+ * Each record carries the address of the previous record by the same author, so per-author lists
+ * need no on-heap structure beyond their head. A missing headline is stored with length -1. Not thread-safe.
+ */
+final class PostRecordLog {
+
+    static final long NONE = -1;
+
+    private static final int LENGTH = 0;
+    private static final int ID = 4;
+    private static final int AUTHOR_ID = 8;
+    private static final int FLAGS = 12;
+    private static final int PREV = 16;
+    private static final int SECONDS = 24;
+    private static final int NANOS = 32;
+    private static final int HEADLINE_LENGTH = 36;
+    private static final int CONTENT_LENGTH = 40;
+    private static final int USERNAME_LENGTH = 44;
+    private static final int HEADER = 48;
+
+    private static final byte DELETED = 1;
+
+    private final ByteBuffer[] segments;
+    private final int[] used;
+    private final int segmentBytes;
+    private final IntConsumer onDrop;
+
+    private int oldest;
+    private int current;
+
+    PostRecordLog(int segmentBytes, int segmentCount, IntConsumer onDrop) {
+        this.segments = new ByteBuffer[segmentCount];
+        this.used = new int[segmentCount];
+        this.segmentBytes = segmentBytes;
+        this.onDrop = onDrop;
+    }
+
+    int segmentBytes() {
+        return segmentBytes;
+    }
+
+    /**
+     * @return bytes reserved outside the heap
+     */
+    long allocatedBytes() {
+        long bytes = 0;
+        for (ByteBuffer segment : segments) if (segment != null) bytes += segment.capacity();
+        return bytes;
+    }
+
+    long usedBytes() {
+        long bytes = 0;
+        for (int seq = oldest; seq <= current; seq++) bytes += used[slot(seq)];
+        return bytes;
+    }
+
+    /**
+     * @return the address of the new record, or {@link #NONE} if it does not fit in a segment
+     */
+    long append(int id, int authorId, LocalDateTime date, byte[] headline, byte[] content, byte[] username) {
+        int headlineLength = headline == null ? 0 : headline.length;
+        int length = (HEADER + headlineLength + content.length + username.length + 7) & ~7;
+        if (length > segmentBytes) return NONE;
+
+        if (segment(current) == null) segments[slot(current)] = ByteBuffer.allocateDirect(segmentBytes);
+        if (used[slot(current)] + length > segmentBytes) advance();
+
+        ByteBuffer segment = segment(current);
+        int offset = used[slot(current)];
+        segment.putInt(offset + LENGTH, length);
+        segment.putInt(offset + ID, id);
+        segment.putInt(offset + AUTHOR_ID, authorId);
+        segment.put(offset + FLAGS, (byte) 0);
+        segment.putLong(offset + PREV, NONE);
+        segment.putLong(offset + SECONDS, date.toEpochSecond(ZoneOffset.UTC));
+        segment.putInt(offset + NANOS, date.getNano());
+        segment.putInt(offset + HEADLINE_LENGTH, headline == null ? -1 : headline.length);
+        segment.putInt(offset + CONTENT_LENGTH, content.length);
+        segment.putInt(offset + USERNAME_LENGTH, username.length);
+        int at = offset + HEADER;
+        if (headline != null) segment.put(at, headline);
+        segment.put(at += headlineLength, content);
+        segment.put(at + content.length, username);
+        used[slot(current)] = offset + length;
+        return address(current, offset);
+    }
+
+    boolean isLive(long address) {
+        if (address == NONE) return false;
+        int seq = (int) (address >>> 32);
+        return seq >= oldest && seq <= current && (int) address < used[slot(seq)];
+    }
+
+    int id(long address) {
+        return segment(address).getInt(offset(address) + ID);
+    }
+
+    int authorId(long address) {
+        return segment(address).getInt(offset(address) + AUTHOR_ID);
+    }
+
+    long seconds(long address) {
+        return segment(address).getLong(offset(address) + SECONDS);
+    }
+
+    int nanos(long address) {
+        return segment(address).getInt(offset(address) + NANOS);
+    }
+
+    boolean isDeleted(long address) {
+        return segment(address).get(offset(address) + FLAGS) == DELETED;
+    }
+
+    void markDeleted(long address) {
+        segment(address).put(offset(address) + FLAGS, DELETED);
+    }
+
+    long prev(long address) {
+        return segment(address).getLong(offset(address) + PREV);
+    }
+
+    void setPrev(long address, long prev) {
+        segment(address).putLong(offset(address) + PREV, prev);
+    }
+
+    /**
+     * Orders records as the post queries do: by date, then by id.
+     */
+    int compare(long address, long seconds, int nanos, int id) {
+        int bySeconds = Long.compare(seconds(address), seconds);
+        if (bySeconds != 0) return bySeconds;
+        int byNanos = Integer.compare(nanos(address), nanos);
+        return byNanos != 0 ? byNanos : Integer.compare(id(address), id);
+    }
+
+    int compare(long address, long other) {
+        return compare(address, seconds(other), nanos(other), id(other));
+    }
+
+    PostView view(long address) {
+        ByteBuffer segment = segment(address);
+        int offset = offset(address);
+        int headlineLength = segment.getInt(offset + HEADLINE_LENGTH);
+        byte[] headline = new byte[Math.max(headlineLength, 0)];
+        byte[] content = new byte[segment.getInt(offset + CONTENT_LENGTH)];
+        byte[] username = new byte[segment.getInt(offset + USERNAME_LENGTH)];
+        int at = offset + HEADER;
+        segment.get(at, headline);
+        segment.get(at += headline.length, content);
+        segment.get(at + content.length, username);
+        return new PostView(id(address), LocalDateTime.ofEpochSecond(seconds(address), nanos(address), ZoneOffset.UTC),
+                headlineLength < 0 ? null : new String(headline, StandardCharsets.UTF_8), new String(content, StandardCharsets.UTF_8),
+                authorId(address), new String(username, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Visits the records of segment {@code seq} in the order they were appended.
+     */
+    void forEach(int seq, LongConsumer visitor) {
+        ByteBuffer segment = segment(seq);
+        if (segment == null) return;
+        for (int offset = 0; offset < used[slot(seq)]; offset += segment.getInt(offset + LENGTH))
+            visitor.accept(address(seq, offset));
+    }
+
+    /**
+     * Visits every live record, oldest segment first.
+     */
+    void forEach(LongConsumer visitor) {
+        for (int seq = oldest; seq <= current; seq++) forEach(seq, visitor);
+    }
+
+    /**
+     * Writes the live segments with their sequence numbers, so addresses stay valid after {@link #readFrom}.
+     */
+    void writeTo(FileChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(3 * Integer.BYTES).putInt(segmentBytes).putInt(oldest).putInt(current).flip();
+        writeFully(channel, header);
+        for (int seq = oldest; seq <= current; seq++) {
+            writeFully(channel, ByteBuffer.allocate(Integer.BYTES).putInt(used[slot(seq)]).flip());
+            ByteBuffer segment = segment(seq);
+            if (segment != null) writeFully(channel, segment.duplicate().position(0).limit(used[slot(seq)]));
+        }
+    }
+
+    /**
+     * Replaces the contents of this log with segments written by {@link #writeTo}.
+     *
+     * @throws IOException if the file is truncated or was written with a different segment size or more segments than fit
+     */
+    void readFrom(FileChannel channel) throws IOException {
+        ByteBuffer header = readFully(channel, ByteBuffer.allocate(3 * Integer.BYTES));
+        int fileSegmentBytes = header.getInt();
+        int fileOldest = header.getInt();
+        int fileCurrent = header.getInt();
+        if (fileSegmentBytes != segmentBytes || fileCurrent < fileOldest || fileCurrent - fileOldest >= segments.length)
+            throw new IOException("Snapshot does not fit the configured segments");
+
+        oldest = fileOldest;
+        current = fileCurrent;
+        for (int seq = oldest; seq <= current; seq++) {
+            int length = readFully(channel, ByteBuffer.allocate(Integer.BYTES)).getInt();
+            if (length < 0 || length > segmentBytes) throw new IOException("Corrupt snapshot segment");
+            if (segment(seq) == null) segments[slot(seq)] = ByteBuffer.allocateDirect(segmentBytes);
+            readFully(channel, segment(seq).duplicate().position(0).limit(length));
+            used[slot(seq)] = length;
+        }
+    }
+
+    void clear() {
+        oldest = 0;
+        current = 0;
+        Arrays.fill(used, 0);
+    }
+
+    private void advance() {
+        if (current - oldest + 1 == segments.length) {
+            onDrop.accept(oldest);
+            used[slot(oldest)] = 0;
+            oldest++;
+        }
+        current++;
+        if (segment(current) == null) segments[slot(current)] = ByteBuffer.allocateDirect(segmentBytes);
+        used[slot(current)] = 0;
+    }
+
+    private ByteBuffer segment(int seq) {
+        return segments[slot(seq)];
+    }
+
+    private ByteBuffer segment(long address) {
+        return segments[slot((int) (address >>> 32))];
+    }
+
+    private int slot(int seq) {
+        return seq % segments.length;
+    }
+
+    private static int offset(long address) {
+        return (int) address;
+    }
+
+    private static long address(int seq, int offset) {
+        return (long) seq << 32 | offset;
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) channel.write(buffer);
+    }
+
+    private static ByteBuffer readFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining())
+            if (channel.read(buffer) < 0) throw new IOException("Snapshot is truncated");
+        return buffer.flip();
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.demo.service.message;
+
+import com.example.demo.data.ConversationSummary;
+import com.example.demo.data.Message;
+import com.example.demo.repository.ConversationSummaryRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Applies persisted messages to both participants' inbox rows, one upsert per (owner, peer) pair
+ * however many messages of the pair are in the batch. Must run inside the transaction that inserts the messages.
+ */
+@Component
+public class ConversationSummaryWriter {
+
+    private record Update(int ownerId, int peerId, String peerUsername, Message last, int unread) {
+    }
+
+    private final ConversationSummaryRepository conversationSummaryRepository;
+
+    @Autowired
+    public ConversationSummaryWriter(ConversationSummaryRepository conversationSummaryRepository) {
+        this.conversationSummaryRepository = conversationSummaryRepository;
+    }
+
+    public void record(List<Message> messages) {
+        Map<ConversationSummary.Key, Update> updates = new LinkedHashMap<>();
+        for (Message message : messages) {
+            int fromId = message.getFrom().getId();
+            int toId = message.getTo().getId();
+            merge(updates, new Update(fromId, toId, message.getTo().getUsername(), message, 0));
+            merge(updates, new Update(toId, fromId, message.getFrom().getUsername(), message, 1));
+        }
+
+        for (Update update : updates.values()) {
+            Message last = update.last();
+            String content = last.getContent();
+            String preview = content.length() > ConversationSummary.PREVIEW_LENGTH ? content.substring(0, ConversationSummary.PREVIEW_LENGTH) : content;
+            conversationSummaryRepository.record(update.ownerId(), update.peerId(), update.peerUsername(),
+                    last.getId(), last.getDateTime(), last.getFrom().getId(), preview, update.unread());
+        }
+    }
+
+    private static void merge(Map<ConversationSummary.Key, Update> updates, Update update) {
+        updates.merge(new ConversationSummary.Key(update.ownerId(), update.peerId()), update, (existing, added) -> {
+            Message last = existing.last().getDateTime().isAfter(added.last().getDateTime()) ? existing.last() : added.last();
+            return new Update(existing.ownerId(), existing.peerId(), existing.peerUsername(), last, existing.unread() + added.unread());
+        });
+    }
+}
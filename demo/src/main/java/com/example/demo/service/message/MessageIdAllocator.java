@@ -0,0 +1,35 @@
+package com.example.demo.service.message;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Hands out message ids from blocks of {@code message_seq}, the same pooled sequence Hibernate allocates from,
+ * so ids assigned here never collide with ids of messages persisted through JPA. The one exception is Hibernate's
+ * first block on a brand-new sequence, which spans two sequence values; that cannot interleave with this allocator
+ * because with write-behind enabled chat messages are never persisted through JPA.
+ */
+final class MessageIdAllocator {
+
+    /**
+     * Must match the {@code allocationSize} of the {@code message_seq} generator on {@code Message}.
+     */
+    static final int BLOCK_SIZE = 50;
+
+    private final JdbcTemplate jdbcTemplate;
+    private int next;
+    private int high = -1;
+
+    MessageIdAllocator(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    synchronized int next() {
+        while (next > high) {
+            // Like Hibernate's pooled optimizer, a sequence value is the upper end of the block it reserves.
+            Integer value = jdbcTemplate.queryForObject("select nextval('message_seq')", Integer.class);
+            high = value;
+            next = Math.max(1, value - BLOCK_SIZE + 1);
+        }
+        return next++;
+    }
+}
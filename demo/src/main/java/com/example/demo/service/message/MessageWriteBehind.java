@@ -0,0 +1,217 @@
+package com.example.demo.service.message;
+
+import com.example.demo.data.Message;
+import com.example.demo.exception.OverloadedException;
+import com.example.demo.service.StatsSource;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Opt-in asynchronous persistence for chat messages ({@code messages.write-behind.enabled}).
+ * <p>
+ * {@link #accept} assigns the message its database id up front, queues it and returns; a single writer thread
+ * inserts whatever has queued up as one JDBC batch in one transaction together with the inbox updates.
+ * A full queue rejects new messages instead of blocking request threads. On shutdown the queue is drained
+ * before the data source goes away. Accepted messages that are still queued are lost if the process dies,
+ * and they show up in history only once their batch commits.
+ */
+@Component
+public class MessageWriteBehind implements StatsSource {
+
+    private static final Logger log = LoggerFactory.getLogger(MessageWriteBehind.class);
+
+    private static final String INSERT = "insert into message (id, from_user_id, to_user_id, date_time, content, type, conversation_id) " +
+            "values (?, ?, ?, ?, ?, ?, ?)";
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final boolean enabled;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ConversationSummaryWriter conversationSummaryWriter;
+    private final MessageIdAllocator idAllocator;
+    private final BlockingQueue<Message> queue;
+    private final int batchSize;
+    private final Duration shutdownTimeout;
+
+    private Consumer<List<Message>> onCommitted = messages -> {};
+    private Thread writer;
+    private volatile boolean accepting;
+
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder committed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final AtomicInteger lastBatchSize = new AtomicInteger();
+    private final AtomicInteger maxBatchSize = new AtomicInteger();
+
+    @Autowired
+    public MessageWriteBehind(@Value("${messages.write-behind.enabled:false}") boolean enabled,
+                              @Value("${messages.write-behind.queue-capacity:10000}") int queueCapacity,
+                              @Value("${messages.write-behind.batch-size:500}") int batchSize,
+                              @Value("${messages.write-behind.shutdown-timeout:30s}") Duration shutdownTimeout,
+                              JdbcTemplate jdbcTemplate,
+                              TransactionTemplate transactionTemplate,
+                              ConversationSummaryWriter conversationSummaryWriter) {
+        this.enabled = enabled;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.conversationSummaryWriter = conversationSummaryWriter;
+        this.idAllocator = new MessageIdAllocator(jdbcTemplate);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.shutdownTimeout = shutdownTimeout;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Runs after each committed batch on the writer thread, e.g. to count and push the messages.
+     */
+    public void onCommitted(Consumer<List<Message>> onCommitted) {
+        this.onCommitted = onCommitted;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) return;
+        accepting = true;
+        writer = new Thread(this::run, "message-write-behind");
+        writer.start();
+    }
+
+    /**
+     * @return the message with its id assigned; it is persisted asynchronously
+     */
+    public Message accept(Message message) throws OverloadedException {
+        if (!accepting) throw new OverloadedException("Message service is shutting down, try again later");
+        if (queue.remainingCapacity() == 0) {
+            rejected.increment();
+            throw new OverloadedException("Too many messages in flight, try again later");
+        }
+
+        message.setId(idAllocator.next());
+        if (!queue.offer(message)) {
+            rejected.increment();
+            throw new OverloadedException("Too many messages in flight, try again later");
+        }
+        accepted.increment();
+        return message;
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (writer == null) return;
+        accepting = false;
+        writer.join(shutdownTimeout.toMillis());
+        if (writer.isAlive()) {
+            writer.interrupt();
+            log.error("Write-behind queue not drained within {}, {} messages lost", shutdownTimeout, queue.size());
+        }
+    }
+
+    @Override
+    public String statsName() {
+        return "messageWriteBehind";
+    }
+
+    @Override
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        long batchCount = batches.sum();
+        stats.put("enabled", enabled);
+        stats.put("queueDepth", queue.size());
+        stats.put("accepted", accepted.sum());
+        stats.put("rejected", rejected.sum());
+        stats.put("committed", committed.sum());
+        stats.put("failed", failed.sum());
+        stats.put("batches", batchCount);
+        stats.put("lastBatchSize", lastBatchSize.get());
+        stats.put("maxBatchSize", maxBatchSize.get());
+        stats.put("avgBatchSize", batchCount == 0 ? 0 : (double) committed.sum() / batchCount);
+        return stats;
+    }
+
+    private void run() {
+        List<Message> batch = new ArrayList<>(batchSize);
+        while (accepting || !queue.isEmpty()) {
+            try {
+                Message first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                write(batch);
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<Message> batch) throws InterruptedException {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    jdbcTemplate.batchUpdate(INSERT, batch, batch.size(), (statement, message) -> {
+                        statement.setInt(1, message.getId());
+                        statement.setInt(2, message.getFrom().getId());
+                        statement.setInt(3, message.getTo().getId());
+                        statement.setTimestamp(4, Timestamp.valueOf(message.getDateTime()));
+                        statement.setString(5, message.getContent());
+                        statement.setInt(6, message.getType().ordinal());
+                        statement.setLong(7, message.getConversationId());
+                    });
+                    conversationSummaryWriter.record(batch);
+                });
+                break;
+            }
+            catch (RuntimeException e) {
+                if (attempt == MAX_ATTEMPTS) {
+                    failed.add(batch.size());
+                    log.error("Dropping {} messages after {} failed attempts to persist them", batch.size(), attempt, e);
+                    return;
+                }
+                log.warn("Failed to persist {} messages, retrying", batch.size(), e);
+                Thread.sleep(100L * attempt);
+            }
+        }
+
+        committed.add(batch.size());
+        batches.increment();
+        lastBatchSize.set(batch.size());
+        maxBatchSize.accumulateAndGet(batch.size(), Math::max);
+        try {
+            onCommitted.accept(List.copyOf(batch));
+        }
+        catch (RuntimeException e) {
+            log.warn("Post-commit handling of {} messages failed", batch.size(), e);
+        }
+    }
+}
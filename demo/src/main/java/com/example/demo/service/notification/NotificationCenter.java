@@ -0,0 +1,193 @@
+package com.example.demo.service.notification;
+
+import com.example.demo.data.Notification;
+import com.example.demo.data.NotificationType;
+import com.example.demo.dto.CursorRequest;
+import com.example.demo.dto.NotificationView;
+import com.example.demo.dto.UserRef;
+import com.example.demo.repository.NotificationRepository;
+import com.example.demo.repository.NotificationSequenceRepository;
+import com.example.demo.repository.UserRepository;
+import com.example.demo.service.AfterCommit;
+import com.example.demo.service.StatsSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Friendship notifications, stored apart from chat messages. Clients either page back through them or
+ * long-poll for ones newer than the latest they have seen; waiting polls are answered as soon as
+ * a notification for that user is committed.
+ */
+@Component
+public class NotificationCenter implements StatsSource {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationCenter.class);
+
+    private record Waiter(long since, int limit, DeferredResult<?> result, Consumer<List<NotificationView>> deliver) {
+    }
+
+    private final NotificationRepository notificationRepository;
+    private final NotificationSequenceRepository notificationSequenceRepository;
+    private final UserRepository userRepository;
+    private final Duration retention;
+    private final int purgeBatchSize;
+
+    private final Map<Integer, Set<Waiter>> waiters = new ConcurrentHashMap<>();
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final LongAdder published = new LongAdder();
+    private final LongAdder purged = new LongAdder();
+
+    @Autowired
+    public NotificationCenter(NotificationRepository notificationRepository,
+                              NotificationSequenceRepository notificationSequenceRepository,
+                              UserRepository userRepository,
+                              @Value("${notifications.retention:30d}") Duration retention,
+                              @Value("${notifications.purge-batch-size:10000}") int purgeBatchSize) {
+        this.notificationRepository = notificationRepository;
+        this.notificationSequenceRepository = notificationSequenceRepository;
+        this.userRepository = userRepository;
+        this.retention = retention;
+        this.purgeBatchSize = purgeBatchSize;
+    }
+
+    /**
+     * Must run inside the caller's transaction: the recipient's seq stays locked until it commits.
+     */
+    public Notification publish(int recipientId, int actorId, NotificationType type) {
+        long seq = notificationSequenceRepository.next(recipientId);
+        Notification notification = notificationRepository.save(new Notification(recipientId, seq, actorId, type, LocalDateTime.now()));
+        published.increment();
+
+        AfterCommit.run(() -> wake(recipientId));
+        return notification;
+    }
+
+    /**
+     * @return notifications older than {@code before} (or the newest ones if {@code null}), newest first
+     */
+    public Slice<NotificationView> page(int recipientId, Long before, int size) throws IllegalArgumentException {
+        checkSize(size);
+        Slice<Notification> page = before == null
+                ? notificationRepository.findByRecipientIdOrderBySeqDesc(recipientId, PageRequest.ofSize(size))
+                : notificationRepository.findByRecipientIdAndSeqLessThanOrderBySeqDesc(recipientId, before, PageRequest.ofSize(size));
+        return new SliceImpl<>(toViews(page.getContent()), page.getPageable(), page.hasNext());
+    }
+
+    /**
+     * @return notifications newer than {@code since}, oldest first
+     */
+    public List<NotificationView> newer(int recipientId, long since, int limit) throws IllegalArgumentException {
+        checkSize(limit);
+        return findNewer(recipientId, since, limit);
+    }
+
+    /**
+     * Long-polling variant of {@link #newer}: completes immediately if there are newer notifications,
+     * otherwise when the next one is committed, or with an empty list after {@code timeout}.
+     */
+    public <T> DeferredResult<T> poll(int recipientId, long since, int limit, Duration timeout,
+                                      Function<List<NotificationView>, T> render) throws IllegalArgumentException {
+        checkSize(limit);
+
+        DeferredResult<T> result = new DeferredResult<>(timeout.toMillis());
+        result.onTimeout(() -> result.setResult(render.apply(List.of())));
+        Waiter waiter = new Waiter(since, limit, result, notifications -> result.setResult(render.apply(notifications)));
+
+        // Register before reading so that a notification committed in between still wakes this poll.
+        waiters.computeIfAbsent(recipientId, id -> ConcurrentHashMap.newKeySet()).add(waiter);
+        waiting.incrementAndGet();
+        result.onCompletion(() -> remove(recipientId, waiter));
+
+        List<NotificationView> newer = findNewer(recipientId, since, limit);
+        if (!newer.isEmpty()) waiter.deliver().accept(newer);
+        return result;
+    }
+
+    @Scheduled(cron = "${notifications.compaction-cron:0 30 3 * * *}")
+    public void compact() {
+        int superseded = notificationRepository.deleteSuperseded();
+
+        LocalDateTime cutoff = LocalDateTime.now().minus(retention);
+        int expired = 0;
+        int deleted;
+        do {
+            deleted = notificationRepository.deleteOlderThan(cutoff, purgeBatchSize);
+            expired += deleted;
+        } while (deleted == purgeBatchSize);
+
+        purged.add(superseded + expired);
+        log.info("Notification compaction removed {} superseded and {} expired rows", superseded, expired);
+    }
+
+    @Override
+    public String statsName() {
+        return "notifications";
+    }
+
+    @Override
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("published", published.sum());
+        stats.put("waitingPolls", waiting.get());
+        stats.put("purged", purged.sum());
+        return stats;
+    }
+
+    private void wake(int recipientId) {
+        Set<Waiter> recipientWaiters = waiters.get(recipientId);
+        if (recipientWaiters == null) return;
+        for (Waiter waiter : recipientWaiters) {
+            if (waiter.result().isSetOrExpired()) continue;
+            List<NotificationView> newer = findNewer(recipientId, waiter.since(), waiter.limit());
+            if (!newer.isEmpty()) waiter.deliver().accept(newer);
+        }
+    }
+
+    private List<NotificationView> findNewer(int recipientId, long since, int limit) {
+        return toViews(notificationRepository.findByRecipientIdAndSeqGreaterThanOrderBySeqAsc(recipientId, since, PageRequest.ofSize(limit)));
+    }
+
+    private static void checkSize(int size) throws IllegalArgumentException {
+        if (size < 1) throw new IllegalArgumentException("Page size must not be less than one");
+        if (size > CursorRequest.MAX_SIZE) throw new IllegalArgumentException("Page size must not be greater than " + CursorRequest.MAX_SIZE);
+    }
+
+    private void remove(int recipientId, Waiter waiter) {
+        waiters.computeIfPresent(recipientId, (id, recipientWaiters) -> {
+            if (recipientWaiters.remove(waiter)) waiting.decrementAndGet();
+            return recipientWaiters.isEmpty() ? null : recipientWaiters;
+        });
+    }
+
+    private List<NotificationView> toViews(List<Notification> notifications) {
+        if (notifications.isEmpty()) return List.of();
+
+        Set<Integer> actorIds = new HashSet<>();
+        for (Notification notification : notifications) actorIds.add(notification.getActorId());
+        Map<Integer, String> usernames = new HashMap<>();
+        for (UserRef user : userRepository.findRefsByIdIn(actorIds)) usernames.put(user.id(), user.username());
+
+        List<NotificationView> views = new ArrayList<>(notifications.size());
+        for (Notification notification : notifications)
+            views.add(new NotificationView(notification.getId(), notification.getSeq(), notification.getType(),
+                    usernames.get(notification.getActorId()), notification.getCreatedAt()));
+        return views;
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.demo.service.push;
+
+import java.io.IOException;
+
+/**
+ * Non-blocking side of an open event stream. {@link #write} and {@link #flush} are only called after
+ * {@link #isReady} returned {@code true}, so they never wait for the client.
+ */
+interface EventSink {
+
+    boolean isReady();
+
+    void write(byte[] frame) throws IOException;
+
+    void flush() throws IOException;
+
+    /**
+     * Ends the stream; safe to call more than once.
+     */
+    void complete();
+}
@@ -0,0 +1,123 @@
+package com.example.demo.service.push;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * One open event stream. Encoded events queue in a bounded buffer that drops the oldest entry when full, and are
+ * written only while the sink reports it is ready, so neither the sender of a message nor any shared thread
+ * ever waits for a slow client. A client that stops accepting data is reported by {@link #isStalled}.
+ */
+final class Mailbox {
+
+    static final byte[] PING = ":ping\n\n".getBytes(StandardCharsets.UTF_8);
+
+    private final int userId;
+    private final int capacity;
+
+    private final Deque<byte[]> frames = new ArrayDeque<>();
+    private EventSink sink;
+    private boolean writable;
+    private boolean closed;
+    private long stalledSince;
+
+    Mailbox(int userId, int capacity) {
+        this.userId = userId;
+        this.capacity = capacity;
+    }
+
+    int userId() {
+        return userId;
+    }
+
+    /**
+     * Binds the stream's sink. Nothing is written until the container first reports it writable.
+     */
+    void connect(EventSink sink) {
+        boolean completeNow;
+        synchronized (this) {
+            this.sink = sink;
+            completeNow = closed;
+        }
+        if (completeNow) sink.complete();
+    }
+
+    /**
+     * @return {@code true} if an older undelivered event was dropped to make room
+     */
+    boolean offer(byte[] frame) {
+        boolean overflow;
+        synchronized (this) {
+            if (closed) return false;
+            overflow = frames.size() >= capacity;
+            if (overflow) frames.pollFirst();
+            frames.addLast(frame);
+        }
+        write();
+        return overflow;
+    }
+
+    /**
+     * Called by the container once the client has taken everything written so far.
+     */
+    void onWritePossible() {
+        synchronized (this) {
+            writable = true;
+            stalledSince = 0;
+        }
+        write();
+    }
+
+    /**
+     * Queues a comment when nothing else is pending, to keep proxies from closing an idle stream.
+     */
+    void heartbeat() {
+        synchronized (this) {
+            if (closed || !frames.isEmpty()) return;
+            frames.addLast(PING);
+        }
+        write();
+    }
+
+    /**
+     * @return {@code true} if writes have been waiting for the client for at least {@code timeoutMillis}
+     */
+    synchronized boolean isStalled(long now, long timeoutMillis) {
+        return stalledSince != 0 && now - stalledSince >= timeoutMillis;
+    }
+
+    void close() {
+        EventSink connected;
+        synchronized (this) {
+            if (closed) return;
+            closed = true;
+            frames.clear();
+            connected = sink;
+        }
+        if (connected != null) connected.complete();
+    }
+
+    private void write() {
+        try {
+            synchronized (this) {
+                if (closed || !writable) return;
+                while (sink.isReady()) {
+                    byte[] frame = frames.pollFirst();
+                    if (frame == null) {
+                        sink.flush();
+                        if (sink.isReady()) return;
+                        break;
+                    }
+                    sink.write(frame);
+                }
+                writable = false;
+                if (stalledSince == 0) stalledSince = System.currentTimeMillis();
+            }
+        }
+        catch (IOException | IllegalStateException e) {
+            close();
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package com.example.demo.service.push;
+
+import com.example.demo.data.Message;
+import com.example.demo.data.MessageType;
+import com.example.demo.dto.MessageEvent;
+import com.example.demo.service.StatsSource;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pushes new chat messages to their recipients' open event streams. The streams are async requests written with
+ * non-blocking servlet I/O, so an idle connection holds a socket and a mailbox but no thread, and a client whose
+ * socket buffer is full only fills its own mailbox. Streams that accept nothing for {@code push.send-timeout}
+ * are closed on the next heartbeat.
+ */
+@Component
+public class MessagePushHub implements StatsSource {
+
+    private final ObjectMapper objectMapper;
+    private final Map<Integer, Set<Mailbox>> mailboxes = new ConcurrentHashMap<>();
+    private final int mailboxCapacity;
+    private final int maxStreamsPerUser;
+    private final long streamTimeout;
+    private final long sendTimeout;
+
+    private final AtomicInteger open = new AtomicInteger();
+    private final LongAdder queued = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder stalled = new LongAdder();
+
+    @Autowired
+    public MessagePushHub(ObjectMapper objectMapper,
+                          @Value("${push.mailbox.capacity:100}") int mailboxCapacity,
+                          @Value("${push.max-streams-per-user:5}") int maxStreamsPerUser,
+                          @Value("${push.stream-timeout:30m}") Duration streamTimeout,
+                          @Value("${push.send-timeout:PT10S}") Duration sendTimeout) {
+        this.objectMapper = objectMapper;
+        this.mailboxCapacity = mailboxCapacity;
+        this.maxStreamsPerUser = maxStreamsPerUser;
+        this.streamTimeout = streamTimeout.toMillis();
+        this.sendTimeout = sendTimeout.toMillis();
+    }
+
+    /**
+     * Turns the request into an event stream for {@code userId}. The response is written asynchronously after
+     * this returns.
+     */
+    public void open(int userId, HttpServletRequest request, HttpServletResponse response) throws IllegalStateException, IOException {
+        Mailbox mailbox = register(userId);
+        try {
+            response.setStatus(HttpServletResponse.SC_OK);
+            response.setContentType(MediaType.TEXT_EVENT_STREAM_VALUE);
+            response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+
+            AsyncContext async = request.startAsync(request, response);
+            async.setTimeout(streamTimeout);
+            async.addListener(new AsyncListener() {
+                @Override
+                public void onComplete(AsyncEvent event) {
+                    close(mailbox);
+                }
+
+                @Override
+                public void onTimeout(AsyncEvent event) {
+                    close(mailbox);
+                }
+
+                @Override
+                public void onError(AsyncEvent event) {
+                    close(mailbox);
+                }
+
+                @Override
+                public void onStartAsync(AsyncEvent event) {
+                }
+            });
+
+            ServletOutputStream out = response.getOutputStream();
+            mailbox.connect(new ServletEventSink(async, out));
+            out.setWriteListener(new WriteListener() {
+                @Override
+                public void onWritePossible() {
+                    mailbox.onWritePossible();
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    close(mailbox);
+                }
+            });
+        }
+        catch (IOException | RuntimeException e) {
+            close(mailbox);
+            throw e;
+        }
+    }
+
+    public void publish(Message message) {
+        if (message.getType() != MessageType.MESSAGE) return;
+        Set<Mailbox> recipients = mailboxes.get(message.getTo().getId());
+        if (recipients == null || recipients.isEmpty()) return;
+
+        byte[] frame = frame(MessageEvent.of(message));
+        for (Mailbox mailbox : recipients) {
+            if (mailbox.offer(frame)) dropped.increment();
+            queued.increment();
+        }
+    }
+
+    /**
+     * Keeps proxies from closing idle streams and closes the ones whose clients stopped reading.
+     */
+    @Scheduled(fixedDelayString = "${push.heartbeat-interval:PT25S}")
+    public void heartbeat() {
+        long now = System.currentTimeMillis();
+        for (Set<Mailbox> userMailboxes : mailboxes.values())
+            for (Mailbox mailbox : userMailboxes) {
+                if (mailbox.isStalled(now, sendTimeout)) {
+                    stalled.increment();
+                    close(mailbox);
+                }
+                else {
+                    mailbox.heartbeat();
+                }
+            }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (Set<Mailbox> userMailboxes : mailboxes.values())
+            for (Mailbox mailbox : userMailboxes)
+                close(mailbox);
+    }
+
+    @Override
+    public String statsName() {
+        return "push";
+    }
+
+    @Override
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("openStreams", open.get());
+        stats.put("connectedUsers", mailboxes.size());
+        stats.put("queued", queued.sum());
+        stats.put("dropped", dropped.sum());
+        stats.put("stalled", stalled.sum());
+        return stats;
+    }
+
+    /**
+     * Adds a mailbox for {@code userId} unless the user already has the maximum number of streams.
+     */
+    Mailbox register(int userId) throws IllegalStateException {
+        Mailbox mailbox = new Mailbox(userId, mailboxCapacity);
+        mailboxes.compute(userId, (id, userMailboxes) -> {
+            if (userMailboxes == null) userMailboxes = ConcurrentHashMap.newKeySet();
+            if (userMailboxes.size() >= maxStreamsPerUser)
+                throw new IllegalStateException("Too many open streams, close one of them first");
+            userMailboxes.add(mailbox);
+            return userMailboxes;
+        });
+        open.incrementAndGet();
+        return mailbox;
+    }
+
+    void close(Mailbox mailbox) {
+        mailbox.close();
+        mailboxes.computeIfPresent(mailbox.userId(), (id, userMailboxes) -> {
+            if (userMailboxes.remove(mailbox)) open.decrementAndGet();
+            return userMailboxes.isEmpty() ? null : userMailboxes;
+        });
+    }
+
+    private byte[] frame(MessageEvent event) {
+        try {
+            return ("event:message\nid:" + event.id() + "\ndata:" + objectMapper.writeValueAsString(event) + "\n\n")
+                    .getBytes(StandardCharsets.UTF_8);
+        }
+        catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.demo.service.push;
+
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.ServletOutputStream;
+
+import java.io.IOException;
+
+/**
+ * {@link EventSink} over a servlet output stream in non-blocking mode: the container buffers what a write
+ * could not send and reports through its write listener when the client has caught up.
+ */
+final class ServletEventSink implements EventSink {
+
+    private final AsyncContext async;
+    private final ServletOutputStream out;
+
+    ServletEventSink(AsyncContext async, ServletOutputStream out) {
+        this.async = async;
+        this.out = out;
+    }
+
+    @Override
+    public boolean isReady() {
+        return out.isReady();
+    }
+
+    @Override
+    public void write(byte[] frame) throws IOException {
+        out.write(frame);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void complete() {
+        try {
+            async.complete();
+        }
+        catch (IllegalStateException ignored) {
+            // Already completed by the container, e.g. after a timeout or a closed connection.
+        }
+    }
+}
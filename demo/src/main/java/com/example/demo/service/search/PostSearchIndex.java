@@ -0,0 +1,212 @@
+package com.example.demo.service.search;
+
+import com.example.demo.dto.PostText;
+import com.example.demo.dto.SearchCursor;
+import com.example.demo.repository.PostRepository;
+import com.example.demo.service.StatsSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntPredicate;
+
+/**
+ * In-memory inverted index over post headlines and contents, ranked with BM25.
+ * Kept current by the post write paths and rebuilt from the database on startup; until the rebuild
+ * finishes, searches are rejected. Removed posts are tombstoned and dropped from posting lists by
+ * a compaction once they make up a sizeable share of the index.
+ */
+@Component
+public class PostSearchIndex implements StatsSource {
+
+    private static final Logger log = LoggerFactory.getLogger(PostSearchIndex.class);
+
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    private static final int HEADLINE_WEIGHT = 2;
+
+    private final PostRepository postRepository;
+    private final int rebuildChunkSize;
+    private final double compactionRatio;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, PostingList> terms = new HashMap<>();
+    private int[] lengths = new int[1024];
+    private int[] authors = new int[1024];
+    private final BitSet live = new BitSet();
+    private final BitSet removed = new BitSet();
+    private int documents;
+    private long totalLength;
+    private int tombstones;
+    private volatile boolean ready;
+
+    @Autowired
+    public PostSearchIndex(PostRepository postRepository,
+                           @Value("${search.rebuild.chunk-size:1000}") int rebuildChunkSize,
+                           @Value("${search.compaction-ratio:0.2}") double compactionRatio) {
+        this.postRepository = postRepository;
+        this.rebuildChunkSize = rebuildChunkSize;
+        this.compactionRatio = compactionRatio;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long started = System.currentTimeMillis();
+        int afterId = 0;
+        List<PostText> chunk;
+        do {
+            chunk = postRepository.findTextsAfter(afterId, PageRequest.ofSize(rebuildChunkSize));
+            lock.writeLock().lock();
+            try {
+                for (PostText post : chunk) addLocked(post);
+            }
+            finally {
+                lock.writeLock().unlock();
+            }
+            if (!chunk.isEmpty()) afterId = chunk.get(chunk.size() - 1).id();
+        } while (chunk.size() == rebuildChunkSize);
+
+        ready = true;
+        log.info("Indexed {} posts for search in {} ms", documents, System.currentTimeMillis() - started);
+    }
+
+    public void add(PostText post) {
+        lock.writeLock().lock();
+        try {
+            addLocked(post);
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(int postId) {
+        lock.writeLock().lock();
+        try {
+            removed.set(postId);
+            if (!live.get(postId)) return;
+
+            live.clear(postId);
+            documents--;
+            totalLength -= lengths[postId];
+            tombstones++;
+            if (tombstones > compactionRatio * Math.max(documents, 1)) compactLocked();
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return up to {@code limit} hits ranked after {@code after}, best first
+     */
+    public List<SearchHit> search(String query, IntPredicate authorFilter, SearchCursor after, int limit) throws IllegalArgumentException, IllegalStateException {
+        Set<String> queryTerms = new LinkedHashSet<>(Tokenizer.tokenize(query));
+        if (queryTerms.isEmpty()) throw new IllegalArgumentException("Search query must contain at least one word");
+        if (!ready) throw new IllegalStateException("Search index is still loading, try again later");
+
+        Map<Integer, float[]> scores = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            float averageLength = documents == 0 ? 1 : (float) totalLength / documents;
+            for (String term : queryTerms) {
+                PostingList postings = terms.get(term);
+                if (postings == null) continue;
+
+                float idf = (float) Math.log(1 + (documents - postings.size() + 0.5) / (postings.size() + 0.5));
+                postings.forEach((postId, frequency) -> {
+                    if (!live.get(postId) || !authorFilter.test(authors[postId])) return;
+                    float norm = K1 * (1 - B + B * lengths[postId] / averageLength);
+                    scores.computeIfAbsent(postId, id -> new float[1])[0] += idf * frequency * (K1 + 1) / (frequency + norm);
+                });
+            }
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+
+        PriorityQueue<SearchHit> top = new PriorityQueue<>(Math.min(limit, scores.size()) + 1, SearchHit.BEST_FIRST.reversed());
+        for (Map.Entry<Integer, float[]> entry : scores.entrySet()) {
+            SearchHit hit = new SearchHit(entry.getKey(), entry.getValue()[0]);
+            if (!hit.isAfter(after)) continue;
+            top.add(hit);
+            if (top.size() > limit) top.poll();
+        }
+
+        List<SearchHit> hits = new ArrayList<>(top);
+        hits.sort(SearchHit.BEST_FIRST);
+        return hits;
+    }
+
+    @Override
+    public String statsName() {
+        return "search";
+    }
+
+    @Override
+    public Map<String, Object> stats() {
+        lock.readLock().lock();
+        try {
+            long postingBytes = 0;
+            for (PostingList postings : terms.values()) postingBytes += postings.bytes();
+
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("ready", ready);
+            stats.put("documents", documents);
+            stats.put("terms", terms.size());
+            stats.put("postingBytes", postingBytes);
+            stats.put("tombstones", tombstones);
+            return stats;
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void addLocked(PostText post) {
+        int postId = post.id();
+        if (live.get(postId) || removed.get(postId)) return;
+
+        Map<String, Integer> frequencies = new HashMap<>();
+        for (String token : Tokenizer.tokenize(post.headline())) frequencies.merge(token, HEADLINE_WEIGHT, Integer::sum);
+        for (String token : Tokenizer.tokenize(post.content())) frequencies.merge(token, 1, Integer::sum);
+
+        int length = 0;
+        for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+            terms.computeIfAbsent(entry.getKey(), term -> new PostingList()).add(postId, entry.getValue());
+            length += entry.getValue();
+        }
+
+        ensureCapacity(postId);
+        lengths[postId] = length;
+        authors[postId] = post.authorId();
+        live.set(postId);
+        documents++;
+        totalLength += length;
+    }
+
+    private void compactLocked() {
+        Iterator<PostingList> iterator = terms.values().iterator();
+        while (iterator.hasNext()) {
+            PostingList postings = iterator.next();
+            postings.compact(removed);
+            if (postings.size() == 0) iterator.remove();
+        }
+        tombstones = 0;
+    }
+
+    private void ensureCapacity(int postId) {
+        if (postId < lengths.length) return;
+        int capacity = Math.max(postId + 1, lengths.length + (lengths.length >> 1));
+        lengths = Arrays.copyOf(lengths, capacity);
+        authors = Arrays.copyOf(authors, capacity);
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.demo.service.search;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Ascending post ids with term frequencies, stored as varint-encoded (id delta, frequency) pairs.
+ * Not thread-safe; {@link PostSearchIndex} guards access.
+ */
+final class PostingList {
+
+    interface Visitor {
+        void accept(int postId, int frequency);
+    }
+
+    private byte[] data = new byte[8];
+    private int length;
+    private int size;
+    private int lastId;
+
+    int size() {
+        return size;
+    }
+
+    int bytes() {
+        return length;
+    }
+
+    void add(int postId, int frequency) {
+        if (size > 0 && postId <= lastId) {
+            insertOutOfOrder(postId, frequency);
+            return;
+        }
+        append(postId, frequency);
+    }
+
+    void forEach(Visitor visitor) {
+        int position = 0;
+        int id = 0;
+        while (position < length) {
+            int delta = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data[position++];
+                delta |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+
+            int frequency = 0;
+            shift = 0;
+            do {
+                b = data[position++];
+                frequency |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+
+            id += delta;
+            visitor.accept(id, frequency);
+        }
+    }
+
+    /**
+     * Rewrites the list without the given posts.
+     */
+    void compact(BitSet removed) {
+        PostingList compacted = new PostingList();
+        forEach((postId, frequency) -> {
+            if (!removed.get(postId)) compacted.append(postId, frequency);
+        });
+        data = compacted.data;
+        length = compacted.length;
+        size = compacted.size;
+        lastId = compacted.lastId;
+    }
+
+    private void append(int postId, int frequency) {
+        ensureCapacity(10);
+        writeVarint(postId - lastId);
+        writeVarint(frequency);
+        lastId = postId;
+        size++;
+    }
+
+    // Concurrent writers may commit ids slightly out of order; rare enough to pay for a rewrite of this list.
+    private void insertOutOfOrder(int postId, int frequency) {
+        int[] ids = new int[size + 1];
+        int[] frequencies = new int[size + 1];
+        int[] count = new int[1];
+        forEach((id, f) -> {
+            ids[count[0]] = id;
+            frequencies[count[0]++] = f;
+        });
+
+        int index = Arrays.binarySearch(ids, 0, count[0], postId);
+        if (index >= 0) return;
+        index = -index - 1;
+
+        data = new byte[Math.max(8, data.length)];
+        length = 0;
+        size = 0;
+        lastId = 0;
+        for (int i = 0; i < count[0]; i++) {
+            if (i == index) append(postId, frequency);
+            append(ids[i], frequencies[i]);
+        }
+        if (index == count[0]) append(postId, frequency);
+    }
+
+    private void writeVarint(int value) {
+        while ((value & ~0x7F) != 0) {
+            data[length++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        data[length++] = (byte) value;
+    }
+
+    private void ensureCapacity(int extra) {
+        if (length + extra > data.length)
+            data = Arrays.copyOf(data, Math.max(length + extra, data.length + (data.length >> 1)));
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.demo.service.search;
+
+import com.example.demo.dto.SearchCursor;
+
+import java.util.Comparator;
+
+public record SearchHit(int postId, float score) {
+
+    public static final Comparator<SearchHit> BEST_FIRST =
+            Comparator.comparingDouble(SearchHit::score).thenComparingInt(SearchHit::postId).reversed();
+
+    boolean isAfter(SearchCursor cursor) {
+        return cursor == null || score < cursor.score() || (score == cursor.score() && postId < cursor.id());
+    }
+
+    public SearchCursor cursor() {
+        return new SearchCursor(score, postId);
+    }
+}
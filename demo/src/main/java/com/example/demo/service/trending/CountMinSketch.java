@@ -0,0 +1,59 @@
+package com.example.demo.service.trending;
+
+/**
+ * Count-min sketch over int keys with real-valued weights. Estimates never undercount;
+ * they overcount by at most {@code e / width} of the total weight with probability {@code 1 - e^-depth}.
+ */
+final class CountMinSketch {
+
+    private static final long[] SEEDS = {0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L, 0xD6E8FEB86659FD93L,
+            0xFF51AFD7ED558CCDL, 0xC4CEB9FE1A85EC53L, 0x94D049BB133111EBL, 0xBF58476D1CE4E5B9L};
+
+    private final double[][] table;
+    private final int mask;
+
+    /**
+     * @param width rounded up to a power of two
+     * @param depth at most 8
+     */
+    CountMinSketch(int width, int depth) {
+        int size = Integer.highestOneBit(Math.max(width - 1, 1)) << 1;
+        this.table = new double[Math.min(depth, SEEDS.length)][size];
+        this.mask = size - 1;
+    }
+
+    /**
+     * Conservative update: raises only the cells that are below the new estimate.
+     *
+     * @return the estimate for {@code key} after the update
+     */
+    double add(int key, double weight) {
+        double estimate = estimate(key) + weight;
+        for (int row = 0; row < table.length; row++) {
+            int cell = cell(row, key);
+            if (table[row][cell] < estimate) table[row][cell] = estimate;
+        }
+        return estimate;
+    }
+
+    double estimate(int key) {
+        double estimate = Double.MAX_VALUE;
+        for (int row = 0; row < table.length; row++)
+            estimate = Math.min(estimate, table[row][cell(row, key)]);
+        return estimate;
+    }
+
+    void scale(double factor) {
+        for (double[] row : table)
+            for (int i = 0; i < row.length; i++) row[i] *= factor;
+    }
+
+    int bytes() {
+        return table.length * table[0].length * Double.BYTES;
+    }
+
+    private int cell(int row, int key) {
+        long hash = (key + 1) * SEEDS[row];
+        return (int) (hash ^ (hash >>> 31)) & mask;
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.demo.service.trending;
+
+import com.example.demo.dto.Trend;
+
+import java.util.*;
+
+/**
+ * The {@code k} highest scoring items seen so far. Scores are kept in forward-decayed form, so their order
+ * does not change as time passes and nothing has to be re-sorted on a clock tick.
+ */
+final class DecayedTopK {
+
+    private static final class Item {
+        final int id;
+        final String name;
+        double score;
+
+        Item(int id, String name, double score) {
+            this.id = id;
+            this.name = name;
+            this.score = score;
+        }
+    }
+
+    private static final Comparator<Item> LOWEST_FIRST = Comparator.<Item>comparingDouble(item -> item.score).thenComparingInt(item -> item.id);
+
+    private final int k;
+    private final Map<Integer, Item> items = new HashMap<>();
+    private final TreeSet<Item> ranked = new TreeSet<>(LOWEST_FIRST);
+
+    DecayedTopK(int k) {
+        this.k = k;
+    }
+
+    /**
+     * Records {@code score} as the item's current score if it is high enough to be among the top {@code k}.
+     */
+    void offer(int id, String name, double score) {
+        Item item = items.get(id);
+        if (item != null) {
+            ranked.remove(item);
+            item.score = score;
+            ranked.add(item);
+            return;
+        }
+        if (items.size() >= k) {
+            Item lowest = ranked.first();
+            if (lowest.score >= score) return;
+            ranked.pollFirst();
+            items.remove(lowest.id);
+        }
+        item = new Item(id, name, score);
+        items.put(id, item);
+        ranked.add(item);
+    }
+
+    void remove(int id) {
+        Item item = items.remove(id);
+        if (item != null) ranked.remove(item);
+    }
+
+    void scale(double factor) {
+        // Uniform scaling keeps the order, so the tree does not need rebuilding.
+        for (Item item : items.values()) item.score *= factor;
+    }
+
+    int size() {
+        return items.size();
+    }
+
+    /**
+     * @return items best first, with scores multiplied by {@code factor}
+     */
+    List<Trend> snapshot(double factor) {
+        List<Trend> trends = new ArrayList<>(items.size());
+        for (Item item : ranked.descendingSet()) trends.add(new Trend(item.id, item.name, item.score * factor));
+        return trends;
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.demo.service.trending;
+
+import com.example.demo.dto.TrendingSnapshot;
+import com.example.demo.service.StatsSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hottest posts and authors over the last hour and day, fed by post and subscription events.
+ * Readers get the latest published snapshot, refreshed every {@code trending.snapshot-interval}.
+ */
+@Component
+public class TrendingEngine implements StatsSource {
+
+    private final List<TrendingWindow> windows;
+    private volatile Map<String, TrendingSnapshot> snapshots = Map.of();
+
+    @Autowired
+    public TrendingEngine(@Value("${trending.top-k:50}") int k,
+                          @Value("${trending.sketch.width:4096}") int sketchWidth,
+                          @Value("${trending.sketch.depth:4}") int sketchDepth) {
+        long now = System.currentTimeMillis();
+        this.windows = List.of(
+                new TrendingWindow("1h", Duration.ofHours(1), k, sketchWidth, sketchDepth, now),
+                new TrendingWindow("24h", Duration.ofHours(24), k, sketchWidth, sketchDepth, now));
+        publish();
+    }
+
+    public void onPostAdded(int postId, String headline, int authorId, String authorName) {
+        long now = System.currentTimeMillis();
+        for (TrendingWindow window : windows) window.onPostAdded(postId, headline, authorId, authorName, now);
+    }
+
+    public void onSubscribed(int authorId, String authorName) {
+        long now = System.currentTimeMillis();
+        for (TrendingWindow window : windows) window.onSubscribed(authorId, authorName, now);
+    }
+
+    public void onPostRemoved(int postId) {
+        for (TrendingWindow window : windows) window.onPostRemoved(postId);
+    }
+
+    public TrendingSnapshot get(String window) throws IllegalArgumentException {
+        TrendingSnapshot snapshot = snapshots.get(window);
+        if (snapshot == null) throw new IllegalArgumentException("Unknown window " + window + ", expected one of " + snapshots.keySet());
+        return snapshot;
+    }
+
+    @Scheduled(fixedDelayString = "${trending.snapshot-interval:PT2S}")
+    public void publish() {
+        long now = System.currentTimeMillis();
+        Map<String, TrendingSnapshot> published = new LinkedHashMap<>();
+        for (TrendingWindow window : windows) published.put(window.name(), window.snapshot(now));
+        snapshots = published;
+    }
+
+    @Override
+    public String statsName() {
+        return "trending";
+    }
+
+    @Override
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        for (TrendingWindow window : windows) {
+            TrendingSnapshot snapshot = snapshots.get(window.name());
+            stats.put(window.name(), Map.of("sketchBytes", window.bytes(),
+                    "posts", snapshot.posts().size(),
+                    "authors", snapshot.authors().size()));
+        }
+        return stats;
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.demo.service.trending;
+
+import com.example.demo.dto.TrendingSnapshot;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Trending authors and posts over one exponentially decaying window: an event that is {@code window} old
+ * weighs {@code 1/e} of a fresh one.
+ * <p>
+ * Author heat is the decayed sum of activity (posts published, subscribers gained), estimated with a
+ * count-min sketch so memory does not grow with the number of authors. A post receives a single weight
+ * when it is published: one plus its author's heat at that moment. Weights are stored forward-decayed
+ * relative to a landmark time that is moved forward before the stored values could overflow.
+ */
+final class TrendingWindow {
+
+    static final double POST_ACTIVITY = 1;
+    static final double SUBSCRIBER_ACTIVITY = 2;
+
+    private static final double MAX_EXPONENT = 40;
+
+    private final String name;
+    private final double windowMillis;
+    private final CountMinSketch authorHeat;
+    private final DecayedTopK authors;
+    private final DecayedTopK posts;
+    private long landmark;
+
+    TrendingWindow(String name, Duration window, int k, int sketchWidth, int sketchDepth, long now) {
+        this.name = name;
+        this.windowMillis = window.toMillis();
+        this.authorHeat = new CountMinSketch(sketchWidth, sketchDepth);
+        this.authors = new DecayedTopK(k);
+        this.posts = new DecayedTopK(k);
+        this.landmark = now;
+    }
+
+    synchronized void onPostAdded(int postId, String headline, int authorId, String authorName, long now) {
+        double boost = forwardDecay(now);
+        double heat = authorHeat.add(authorId, POST_ACTIVITY * boost);
+        authors.offer(authorId, authorName, heat);
+        posts.offer(postId, headline, (1 + heat / boost) * boost);
+    }
+
+    synchronized void onSubscribed(int authorId, String authorName, long now) {
+        double heat = authorHeat.add(authorId, SUBSCRIBER_ACTIVITY * forwardDecay(now));
+        authors.offer(authorId, authorName, heat);
+    }
+
+    synchronized void onPostRemoved(int postId) {
+        posts.remove(postId);
+    }
+
+    synchronized TrendingSnapshot snapshot(long now) {
+        double decay = Math.exp(-(now - landmark) / windowMillis);
+        return new TrendingSnapshot(name,
+                LocalDateTime.ofInstant(Instant.ofEpochMilli(now), ZoneId.systemDefault()),
+                posts.snapshot(decay), authors.snapshot(decay));
+    }
+
+    synchronized int bytes() {
+        return authorHeat.bytes();
+    }
+
+    private double forwardDecay(long now) {
+        double exponent = (now - landmark) / windowMillis;
+        if (exponent > MAX_EXPONENT) {
+            double factor = Math.exp(-exponent);
+            authorHeat.scale(factor);
+            authors.scale(factor);
+            posts.scale(factor);
+            landmark = now;
+            exponent = 0;
+        }
+        return Math.exp(exponent);
+    }
+
+    String name() {
+        return name;
+    }
+}
@@ -2,25 +2,41 @@ package com.example.demo.controller;
 
 import com.example.demo.data.Message;
 import com.example.demo.data.MessageType;
-import com.example.demo.data.Post;
+import com.example.demo.data.Notification;
+import com.example.demo.data.NotificationType;
 import com.example.demo.data.User;
+import com.example.demo.dto.ConversationView;
+import com.example.demo.dto.CursorRequest;
 import com.example.demo.dto.MessageDTO;
+import com.example.demo.dto.MessageView;
+import com.example.demo.dto.PageCursor;
 import com.example.demo.dto.PostDTO;
+import com.example.demo.dto.PostView;
+import com.example.demo.dto.SearchCursor;
+import com.example.demo.dto.SearchPage;
 import com.example.demo.dto.UserDTO;
+import com.example.demo.dto.UserStats;
 import com.example.demo.exception.NotFriendsException;
 import com.example.demo.exception.NotSubscribedException;
+import com.example.demo.exception.OverloadedException;
+import com.example.demo.exception.PartialBatchException;
 import com.example.demo.exception.RegistrationException;
 import com.example.demo.service.UserService;
+import com.example.demo.service.cache.PostJsonCache;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.PageImpl;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletResponse;
 
 import java.security.Principal;
 import java.time.LocalDateTime;
@@ -41,73 +57,134 @@ class RESTControllerTest {
     @Mock
     private Principal principal;
 
+    @Spy
+    private PageJsonWriter pageJsonWriter = new PageJsonWriter(new ObjectMapper(), new PostJsonCache(new ObjectMapper(), 100));
+
     @InjectMocks
     private RESTController restController;
 
     @Test
     @DisplayName("Should return the feed with the given pagination and sorting parameters")
-    void getFeedWithPaginationAndSorting() {
-        User user1 = new User("user1", "password1", "user1@example.com");
-        User user2 = new User("user2", "password2", "user2@example.com");
-        User user3 = new User("user3", "password3", "user3@example.com");
-
-        Post post1 = new Post(LocalDateTime.now(), "Headline 1", "Content 1", user1);
-        Post post2 = new Post(LocalDateTime.now().minusDays(1), "Headline 2", "Content 2", user2);
-        Post post3 = new Post(LocalDateTime.now().minusDays(2), "Headline 3", "Content 3", user3);
+    void getFeedWithPaginationAndSorting() throws Exception {
+        PostView post1 = new PostView(3, LocalDateTime.now(), "Headline 1", "Content 1", 1, "user1");
+        PostView post2 = new PostView(2, LocalDateTime.now().minusDays(1), "Headline 2", "Content 2", 2, "user2");
+        PostView post3 = new PostView(1, LocalDateTime.now().minusDays(2), "Headline 3", "Content 3", 3, "user3");
 
-        List<Post> posts = Arrays.asList(post1, post2, post3);
-        PageImpl<Post> page = new PageImpl<>(posts);
+        List<PostView> posts = Arrays.asList(post1, post2, post3);
+        SliceImpl<PostView> page = new SliceImpl<>(posts, PageRequest.ofSize(3), true);
 
-        when(principal.getName()).thenReturn(user1.getUsername());
-        when(userService.getFeed(anyString(), any(Pageable.class))).thenReturn(page);
+        when(principal.getName()).thenReturn("user1");
+        when(userService.getFeed(anyString(), any(CursorRequest.class))).thenReturn(page);
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        restController.getFeed(principal, null, 3, "desc", response);
+
+        assertEquals(HttpStatus.OK.value(), response.getStatus());
+        assertEquals(MediaType.APPLICATION_JSON_VALUE, response.getContentType());
+        String body = response.getContentAsString();
+        assertTrue(body.startsWith("{\"posts\":["));
+        assertTrue(body.contains("\"nextCursor\":\"" + new PageCursor(post3.date(), post3.id()).encode() + "\""));
+        assertTrue(body.contains("\"headline\":\"Headline 1\""));
+        assertTrue(body.contains("\"headline\":\"Headline 2\""));
+        assertTrue(body.contains("\"headline\":\"Headline 3\""));
+        assertTrue(body.contains("\"authorUsername\":\"user2\""));
+
+        verify(userService, times(1)).getFeed(anyString(), any(CursorRequest.class));
+    }
 
-        ResponseEntity<String> response = restController.getFeed(principal, 0, 3, "desc");
+    @Test
+    @DisplayName("Should reject a feed page larger than the maximum size")
+    void getFeedRejectsOversizedPage() throws Exception {
+        when(principal.getName()).thenReturn("user1");
 
-        assertEquals(HttpStatus.OK, response.getStatusCode());
-        assertTrue(response.getBody().contains("posts"));
-        assertTrue(response.getBody().contains("currentPage"));
-        assertTrue(response.getBody().contains("totalItems"));
-        assertTrue(response.getBody().contains("totalPages"));
-        assertTrue(response.getBody().contains("Headline 1"));
-        assertTrue(response.getBody().contains("Headline 2"));
-        assertTrue(response.getBody().contains("Headline 3"));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        restController.getFeed(principal, null, 2_000_000_000, "desc", response);
 
-        verify(userService, times(1)).getFeed(anyString(), any(Pageable.class));
+        assertEquals(HttpStatus.BAD_REQUEST.value(), response.getStatus());
+        verify(userService, never()).getFeed(anyString(), any(CursorRequest.class));
     }
 
     @Test
     @DisplayName(
             "Should return  message history when there are no messages between two users")
-    void getMessageHistory() {
+    void getMessageHistory() throws Exception {
         String username = "user1";
         String with = "user2";
-        User user1 = new User(username, "password", "email");
-        User user2 = new User(with, "password", "email1");
-        int page = 0;
+        String cursor = null;
         int size = 5;
         String sort = "desc";
-        List<Message> messages = new ArrayList<>();
-        messages.add(new Message(user1, user2, LocalDateTime.now(), "message1", MessageType.MESSAGE));
-        messages.add(new Message(user2, user1, LocalDateTime.now(), "message2", MessageType.MESSAGE));
-        messages.add(new Message(user1, user2, LocalDateTime.now(), "message3", MessageType.MESSAGE));
-        PageImpl<Message> pageImpl = new PageImpl<>(messages);
+        List<MessageView> messages = new ArrayList<>();
+        messages.add(new MessageView(3, LocalDateTime.now(), 1, username, 2, with, "message1"));
+        messages.add(new MessageView(2, LocalDateTime.now(), 2, with, 1, username, "message2"));
+        messages.add(new MessageView(1, LocalDateTime.now(), 1, username, 2, with, "message3"));
+        SliceImpl<MessageView> slice = new SliceImpl<>(messages);
         when(principal.getName()).thenReturn(username);
-        when(userService.getMessageHistory(eq(username), eq(with), any(Pageable.class)))
-                .thenReturn(pageImpl);
+        when(userService.getMessageHistory(eq(username), eq(with), any(CursorRequest.class)))
+                .thenReturn(slice);
+        when(userService.countMessages(username, with)).thenReturn(3L);
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        restController.getMessageHistory(principal, with, cursor, size, sort, response);
+
+        assertEquals(HttpStatus.OK.value(), response.getStatus());
+        String body = response.getContentAsString();
+        assertTrue(body.startsWith("{\"messages\":["));
+        assertTrue(body.contains("\"content\":\"message1\""));
+        assertTrue(body.contains("\"content\":\"message2\""));
+        assertTrue(body.contains("\"content\":\"message3\""));
+        assertTrue(body.contains("\"fromUsername\":\"user2\""));
+        assertTrue(body.contains("\"nextCursor\":null"));
+        assertTrue(body.contains("\"totalItems\":3"));
+        verify(userService, times(1))
+                .getMessageHistory(eq(username), eq(with), any(CursorRequest.class));
+    }
 
-        ResponseEntity<String> response =
-                restController.getMessageHistory(principal, with, page, size, sort);
+    @Test
+    @DisplayName("Should return the inbox with a cursor positioned after the last conversation")
+    void getConversations() {
+        ConversationView summary = new ConversationView(2, "user2", "see you", LocalDateTime.of(2023, 6, 1, 12, 0), 3);
+
+        when(principal.getName()).thenReturn("user1");
+        when(userService.getConversations("user1", null, 1))
+                .thenReturn(new SliceImpl<>(List.of(summary), PageRequest.ofSize(1), true));
+
+        ResponseEntity<String> response = restController.getConversations(principal, null, 1);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
-        assertTrue(response.getBody().contains("messages"));
-        assertTrue(response.getBody().contains("message1"));
-        assertTrue(response.getBody().contains("message2"));
-        assertTrue(response.getBody().contains("message3"));
-        assertTrue(response.getBody().contains("currentPage"));
-        assertTrue(response.getBody().contains("totalItems"));
-        assertTrue(response.getBody().contains("totalPages"));
-        verify(userService, times(1))
-                .getMessageHistory(eq(username), eq(with), any(Pageable.class));
+        assertTrue(response.getBody().contains("\"peer\":\"user2\""));
+        assertTrue(response.getBody().contains("\"unread\":3"));
+        assertTrue(response.getBody().contains("\"nextCursor\":\"" + new PageCursor(summary.lastMessageAt(), 2).encode() + "\""));
+    }
+
+    @Test
+    @DisplayName("Should return search results as JSON with the next search cursor")
+    void searchPosts() throws Exception {
+        PostView post = new PostView(5, LocalDateTime.now(), "Java tips", "Content", 2, "user2");
+        SearchCursor next = new SearchCursor(1.5f, 5);
+
+        when(principal.getName()).thenReturn("user1");
+        when(userService.searchPosts("user1", "java", null, 1, false)).thenReturn(new SearchPage(List.of(post), next));
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        restController.searchPosts(principal, "java", null, 1, false, response);
+
+        assertEquals(HttpStatus.OK.value(), response.getStatus());
+        String body = response.getContentAsString();
+        assertTrue(body.contains("\"headline\":\"Java tips\""));
+        assertTrue(body.contains("\"nextCursor\":\"" + next.encode() + "\""));
+    }
+
+    @Test
+    @DisplayName("Should return the maintained counters of the requested profile")
+    void getProfileOfAnotherUser() {
+        when(principal.getName()).thenReturn("user1");
+        when(userService.getStats("user2")).thenReturn(new UserStats("user2", 4, 10, 2));
+
+        ResponseEntity<String> response = restController.getProfile(principal, "user2");
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("{\"username\":\"user2\",\"posts\":4,\"subscribers\":10,\"subscriptions\":2}", response.getBody());
+        verify(userService, times(1)).getStats("user2");
     }
 
     @Test
@@ -170,88 +247,117 @@ class RESTControllerTest {
         assertEquals("Invalid post data", responseEntity.getBody());
     }
 
+    @Test
+    @DisplayName("Should return ids of all imported posts")
+    void addPostsWithValidData() {
+        List<PostDTO> posts = List.of(new PostDTO("First", "Content"), new PostDTO("Second", "Content"));
+
+        when(principal.getName()).thenReturn("testUser");
+        when(userService.addPosts("testUser", posts)).thenReturn(List.of(7, 8));
+
+        ResponseEntity<String> response = restController.addPosts(posts, principal);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("[7,8]", response.getBody());
+    }
+
+    @Test
+    @DisplayName("Should return the ids already saved when a later chunk fails")
+    void addPostsWhenLaterChunkFails() {
+        List<PostDTO> posts = List.of(new PostDTO("First", "Content"), new PostDTO("Second", "Content"));
+
+        when(principal.getName()).thenReturn("testUser");
+        when(userService.addPosts("testUser", posts))
+                .thenThrow(new PartialBatchException("Saved 1 of 2 posts: database is down", List.of(7), new RuntimeException()));
+
+        ResponseEntity<String> response = restController.addPosts(posts, principal);
+
+        assertEquals(HttpStatus.MULTI_STATUS, response.getStatusCode());
+        assertEquals("{\"error\":\"Saved 1 of 2 posts: database is down\",\"savedIds\":[7]}", response.getBody());
+    }
+
     @Test
     @DisplayName("Should return an error when invalid pagination parameters are provided")
-    void getPostsWhenInvalidPaginationParametersProvidedThenReturnError() {
+    void getPostsWhenInvalidPaginationParametersProvidedThenReturnError() throws Exception {
         String user = "testUser";
-        int page = -1;
         int size = 0;
         String sort = "asc";
         when(principal.getName()).thenReturn(user);
 
-        ResponseEntity<String> response =
-                restController.getPosts(principal, user, page, size, sort);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        restController.getPosts(principal, user, null, size, sort, response);
 
-        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
-        assertNotNull(response.getBody());
+        assertEquals(HttpStatus.BAD_REQUEST.value(), response.getStatus());
+        assertEquals("Page size must not be less than one", response.getContentAsString());
         verify(userService, times(0)).getPosts(anyString(), anyString(), any());
     }
 
     @Test
-    @DisplayName("Should return an error when an invalid user is provided")
-    void getPostsWhenInvalidUserProvidedThenReturnError() {
-        User user1 = new User("user1", "password1", "email1");
-
-        LocalDateTime date1 = LocalDateTime.of(2022, 1, 1, 0, 0);
-        LocalDateTime date2 = LocalDateTime.of(2022, 1, 2, 0, 0);
-        LocalDateTime date3 = LocalDateTime.of(2022, 1, 3, 0, 0);
+    @DisplayName("Should return an error when a malformed cursor is provided")
+    void getPostsWhenMalformedCursorProvidedThenReturnError() throws Exception {
+        when(principal.getName()).thenReturn("testUser");
 
-        Post post1 = new Post(date1, "Headline1", "Content1", user1);
-        Post post2 = new Post(date2, "Headline2", "Content2", user1);
-        Post post3 = new Post(date3, "Headline3", "Content3", user1);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        restController.getPosts(principal, null, "not-a-cursor", 3, "desc", response);
 
-        List<Post> posts = Arrays.asList(post1, post2, post3);
+        assertEquals(HttpStatus.BAD_REQUEST.value(), response.getStatus());
+        assertEquals("Invalid cursor", response.getContentAsString());
+        verify(userService, times(0)).getPosts(anyString(), any(), any());
+    }
 
+    @Test
+    @DisplayName("Should return an error when an invalid user is provided")
+    void getPostsWhenInvalidUserProvidedThenReturnError() throws Exception {
         when(principal.getName()).thenReturn("user1");
-        when(userService.getPosts(anyString(), anyString(), any(Pageable.class)))
+        when(userService.getPosts(anyString(), anyString(), any(CursorRequest.class)))
                 .thenThrow(new NotSubscribedException("Not subscribed"));
 
 
-        ResponseEntity<String> response = restController.getPosts(principal, "", 0, 3, "asc");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        restController.getPosts(principal, "", null, 3, "asc", response);
 
-        verify(userService, times(1)).getPosts(anyString(), anyString(), any(Pageable.class));
+        verify(userService, times(1)).getPosts(anyString(), anyString(), any(CursorRequest.class));
         verify(userService, times(0)).getByUsername(anyString());
 
-        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
-        assertNotNull(response.getBody());
-        assertEquals("Not subscribed", response.getBody());
+        assertEquals(HttpStatus.BAD_REQUEST.value(), response.getStatus());
+        assertEquals("Not subscribed", response.getContentAsString());
 
     }
 
     @Test
     @DisplayName("Should return posts for the current user when no user parameter is provided")
-    void getPostsForCurrentUserWhenNoUserParameterProvided() {
-        User user1 = new User("user1", "password1", "email1");
-
+    void getPostsForCurrentUserWhenNoUserParameterProvided() throws Exception {
         LocalDateTime date1 = LocalDateTime.of(2022, 1, 1, 0, 0);
         LocalDateTime date2 = LocalDateTime.of(2022, 1, 2, 0, 0);
         LocalDateTime date3 = LocalDateTime.of(2022, 1, 3, 0, 0);
 
-        Post post1 = new Post(date1, "Headline1", "Content1", user1);
-        Post post2 = new Post(date2, "Headline2", "Content2", user1);
-        Post post3 = new Post(date3, "Headline3", "Content3", user1);
+        PostView post1 = new PostView(1, date1, "Headline1", "Content1", 1, "user1");
+        PostView post2 = new PostView(2, date2, "Headline2", "Content2", 1, "user1");
+        PostView post3 = new PostView(3, date3, "Headline3", "Content3", 1, "user1");
 
-        List<Post> posts = Arrays.asList(post1, post2, post3);
+        List<PostView> posts = Arrays.asList(post1, post2, post3);
 
         when(principal.getName()).thenReturn("user1");
-        when(userService.getPosts(anyString(), anyString(), any(Pageable.class)))
-                .thenReturn(new PageImpl<>(posts));
+        when(userService.getPosts(anyString(), anyString(), any(CursorRequest.class)))
+                .thenReturn(new SliceImpl<>(posts));
 
 
-        ResponseEntity<String> response = restController.getPosts(principal, "", 0, 3, "asc");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        restController.getPosts(principal, "", null, 3, "asc", response);
 
-        assertEquals(HttpStatus.OK, response.getStatusCode());
-        assertNotNull(response.getBody());
+        assertEquals(HttpStatus.OK.value(), response.getStatus());
 
-        verify(userService, times(1)).getPosts(anyString(), anyString(), any(Pageable.class));
+        verify(userService, times(1)).getPosts(anyString(), anyString(), any(CursorRequest.class));
         verify(userService, times(0)).getByUsername(anyString());
 
-        assertTrue(response.getBody().contains("Headline1"));
-        assertTrue(response.getBody().contains("Headline2"));
-        assertTrue(response.getBody().contains("Headline3"));
-        assertTrue(response.getBody().contains("Content1"));
-        assertTrue(response.getBody().contains("Content2"));
-        assertTrue(response.getBody().contains("Content3"));
+        String body = response.getContentAsString();
+        assertTrue(body.contains("\"headline\":\"Headline1\""));
+        assertTrue(body.contains("\"headline\":\"Headline2\""));
+        assertTrue(body.contains("\"headline\":\"Headline3\""));
+        assertTrue(body.contains("\"content\":\"Content1\""));
+        assertTrue(body.contains("\"content\":\"Content2\""));
+        assertTrue(body.contains("\"content\":\"Content3\""));
+        assertTrue(body.contains("\"totalItems\":0"));
     }
 
     @Test
@@ -275,6 +381,21 @@ class RESTControllerTest {
         verify(userService, times(1)).sendMessage(from, to, content);
     }
 
+    @Test
+    @DisplayName("Should answer with too many requests when the message queue is full")
+    void sendMessageWhenOverloaded() {
+        MessageDTO messageDTO = new MessageDTO("test content", "testUser");
+
+        when(principal.getName()).thenReturn("testUsername");
+        when(userService.sendMessage("testUsername", "testUser", "test content"))
+                .thenThrow(new OverloadedException("Too many messages in flight, try again later"));
+
+        ResponseEntity<String> response = restController.sendMessage(principal, messageDTO);
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, response.getStatusCode());
+        assertEquals("Too many messages in flight, try again later", response.getBody());
+    }
+
     @Test
     @DisplayName("Should throw an exception when sending a message from an invalid user")
     void sendMessageFromInvalidUserThrowsException() {
@@ -316,20 +437,16 @@ class RESTControllerTest {
     void unfriendUserSuccessfully() {
         String remove = "user1";
         String username = "user2";
-        Message message =
-                new Message(new User("user", "pass", "email"),
-                        new User("user2", "pass2", "email2"),
-                        LocalDateTime.now(), null,
-                        MessageType.FRIEND_REMOVE);
+        Notification notification = new Notification(1, 1, 2, NotificationType.FRIEND_REMOVE, LocalDateTime.now());
 
         when(principal.getName()).thenReturn(username);
-        when(userService.unfriend(remove, username)).thenReturn(message);
+        when(userService.unfriend(remove, username)).thenReturn(notification);
 
         ResponseEntity<String> response = restController.unfriend(principal, remove);
 
         assertNotNull(response);
         assertEquals(HttpStatus.OK, response.getStatusCode());
-        assertEquals(message.toString(), response.getBody());
+        assertEquals(notification.toString(), response.getBody());
         verify(userService, times(1)).unfriend(remove, username);
     }
 
@@ -339,13 +456,10 @@ class RESTControllerTest {
         String currentUsername = "user1";
         String friendUsername = "user2";
 
-        User user1 = new User("user1", "password", "user1@example.com");
-        User user2 = new User("user2", "password", "user2@example.com");
-
-        Message message = new Message(user2, user1, LocalDateTime.now(), null, MessageType.FRIEND_DENY);
+        Notification notification = new Notification(2, 1, 1, NotificationType.FRIEND_DENY, LocalDateTime.now());
 
         when(principal.getName()).thenReturn(currentUsername);
-        when(userService.denyFriendRequest(friendUsername, currentUsername)).thenReturn(message);
+        when(userService.denyFriendRequest(friendUsername, currentUsername)).thenReturn(notification);
 
         ResponseEntity<String> response = restController.denyFriendRequest(principal, friendUsername);
 
@@ -376,12 +490,9 @@ class RESTControllerTest {
     void acceptFriendRequestSuccess() {
         String add = "testUser";
         String to = "currentUser";
-        User currentUser = new User(to, "password", "email1@example.com");
-        User friendUser = new User(add, "password", "email2@example.com");
-
         when(principal.getName()).thenReturn(to);
         when(userService.acceptFriendRequest(add, to))
-                .thenReturn(new Message(friendUser, currentUser, LocalDateTime.now(), null, MessageType.FRIEND_REQUEST));
+                .thenReturn(new Notification(2, 1, 1, NotificationType.FRIEND_APPROVE, LocalDateTime.now()));
 
         ResponseEntity<String> response = restController.acceptFriendRequest(principal, add);
 
@@ -427,10 +538,8 @@ class RESTControllerTest {
     @DisplayName("Should send a friend request successfully when the input is valid")
     void sendFriendRequestWhenInputIsValid() {
 
-        User user1 = new User("username1", "password", "email1@example.com");
-        User user2 = new User("username2", "password", "email2@example.com");
         when(principal.getName()).thenReturn("username1");
-        when(userService.sendFriendRequest("username1", "username2")).thenReturn(new Message(user1, user2, LocalDateTime.now(), null, MessageType.FRIEND_REQUEST));
+        when(userService.sendFriendRequest("username1", "username2")).thenReturn(new Notification(2, 1, 1, NotificationType.FRIEND_REQUEST, LocalDateTime.now()));
 
         ResponseEntity<String> response = restController.sendFriendRequest(principal, "username2");
 
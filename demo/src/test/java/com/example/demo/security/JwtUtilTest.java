@@ -0,0 +1,61 @@
+package com.example.demo.security;
+
+import com.example.demo.data.User;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtUtilTest {
+
+    private static final String SECRET = "jroylcz0N3uib9W7pbOhz02tTWNSMJjP/BcZkf0tb2g=";
+
+    private final JwtUtil jwtUtil = new JwtUtil(SECRET, 100);
+
+    @Test
+    @DisplayName("Should verify a token once and answer repeats from the cache")
+    void cachesVerifiedTokens() {
+        String token = jwtUtil.generateJwtToken(new User("user1", "password", "user1@mail.com"));
+
+        assertEquals("user1", jwtUtil.getVerifiedUsername(token));
+        assertEquals("user1", jwtUtil.getVerifiedUsername(token));
+        assertEquals(1L, jwtUtil.stats().get("verifications"));
+        assertEquals(1L, jwtUtil.stats().get("hits"));
+    }
+
+    @Test
+    @DisplayName("Should reject tampered, foreign and malformed tokens")
+    void rejectsInvalidTokens() {
+        String token = jwtUtil.generateJwtToken(new User("user1", "password", "user1@mail.com"));
+        String foreign = Jwts.builder()
+                .setSubject("user1")
+                .setExpiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode("c2Vjb25kLXNlY3JldC1rZXktb2YtdGhpcnR5LXR3by1ieXRlcw==")))
+                .compact();
+
+        int at = token.length() - 5;
+        String tampered = token.substring(0, at) + (token.charAt(at) == 'A' ? 'B' : 'A') + token.substring(at + 1);
+
+        assertNull(jwtUtil.getVerifiedUsername(tampered));
+        assertNull(jwtUtil.getVerifiedUsername(foreign));
+        assertNull(jwtUtil.getVerifiedUsername("not-a-token"));
+        assertEquals(3L, jwtUtil.stats().get("rejections"));
+    }
+
+    @Test
+    @DisplayName("Should reject an expired token")
+    void rejectsExpiredToken() {
+        String expired = Jwts.builder()
+                .setSubject("user1")
+                .setExpiration(new Date(System.currentTimeMillis() - 1_000))
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET)))
+                .compact();
+
+        assertNull(jwtUtil.getVerifiedUsername(expired));
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.demo.service.cache;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LruCacheTest {
+
+    @Test
+    @DisplayName("Should evict the least recently used entry and report it")
+    void evictsLeastRecentlyUsed() {
+        List<String> evicted = new ArrayList<>();
+        LruCache<String, Integer> cache = new LruCache<>(1, (key, value) -> evicted.add(key));
+
+        cache.put("a", 1);
+        cache.put("b", 2);
+
+        assertNull(cache.get("a"));
+        assertEquals(2, cache.get("b"));
+        assertEquals(List.of("a"), evicted);
+        assertEquals(1L, cache.stats().get("evictions"));
+    }
+
+    @Test
+    @DisplayName("Should count hits and misses")
+    void countsHitsAndMisses() {
+        LruCache<Integer, String> cache = new LruCache<>(100);
+        cache.put(1, "one");
+
+        cache.get(1);
+        cache.get(1);
+        cache.get(2);
+
+        assertEquals(2L, cache.stats().get("hits"));
+        assertEquals(1L, cache.stats().get("misses"));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    @DisplayName("Should only remove an entry that is still mapped to the expected value")
+    void conditionalRemove() {
+        LruCache<Integer, String> cache = new LruCache<>(100);
+        cache.put(1, "one");
+
+        assertFalse(cache.remove(1, "uno"));
+        assertTrue(cache.remove(1, "one"));
+        assertNull(cache.get(1));
+    }
+
+    @Test
+    @DisplayName("Should keep the first value on putIfAbsent and not count peeks")
+    void putIfAbsentAndPeek() {
+        LruCache<Integer, String> cache = new LruCache<>(100);
+
+        assertEquals("one", cache.putIfAbsent(1, "one"));
+        assertEquals("one", cache.putIfAbsent(1, "uno"));
+        assertEquals("one", cache.peek(1));
+        assertNull(cache.peek(2));
+
+        assertEquals(0L, cache.stats().get("hits"));
+        assertEquals(0L, cache.stats().get("misses"));
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.demo.service.cache;
+
+import com.example.demo.dto.PostView;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PostJsonCacheTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final PostJsonCache cache = new PostJsonCache(mapper, 100);
+
+    private final PostView post = new PostView(7, LocalDateTime.of(2024, 3, 1, 12, 30), "Заголовок \"1\"", "Текст\nпоста", 3, "user3");
+
+    @Test
+    @DisplayName("Should encode a post once and reuse the bytes")
+    void reusesEncoding() {
+        JsonFragment first = cache.get(post);
+
+        assertSame(first, cache.get(post));
+        assertEquals(1L, cache.stats().get("hits"));
+    }
+
+    @Test
+    @DisplayName("Should encode every field as valid JSON")
+    void encodesFields() throws Exception {
+        JsonNode node = mapper.readTree(cache.get(post).asUnquotedUTF8());
+
+        assertEquals(7, node.get("id").asInt());
+        assertEquals("2024-03-01T12:30", node.get("date").asText());
+        assertEquals("Заголовок \"1\"", node.get("headline").asText());
+        assertEquals("Текст\nпоста", node.get("content").asText());
+        assertEquals(3, node.get("authorId").asInt());
+        assertEquals("user3", node.get("authorUsername").asText());
+    }
+
+    @Test
+    @DisplayName("Should splice cached fragments into a generator")
+    void splicesIntoGenerator() throws Exception {
+        StringWriter out = new StringWriter();
+        try (JsonGenerator json = mapper.getFactory().createGenerator(out)) {
+            json.writeStartArray();
+            json.writeRawValue(cache.get(post));
+            json.writeRawValue(cache.get(post));
+            json.writeEndArray();
+        }
+
+        JsonNode node = mapper.readTree(out.toString());
+        assertEquals(2, node.size());
+        assertEquals(mapper.readTree(cache.get(post).asUnquotedUTF8()), node.get(1));
+    }
+
+    @Test
+    @DisplayName("Should drop an evicted post")
+    void evicts() {
+        JsonFragment first = cache.get(post);
+        cache.evict(post.id());
+
+        assertNotSame(first, cache.get(post));
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.demo.service.counter;
+
+import com.example.demo.data.CounterType;
+import com.example.demo.data.StatCounter;
+import com.example.demo.repository.StatCounterRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StatCountersTest {
+
+    @Mock
+    private StatCounterRepository counterRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private StatCounters counters;
+
+    @BeforeEach
+    void setUp() {
+        counters = new StatCounters(counterRepository, transactionTemplate, 100);
+    }
+
+    private static Optional<StatCounter> stored(long value) {
+        StatCounter counter = new StatCounter();
+        counter.setType(CounterType.POSTS);
+        counter.setOwnerId(1);
+        counter.setValue(value);
+        return Optional.of(counter);
+    }
+
+    @Test
+    @DisplayName("Should flush the summed delta once and drop the emptied accumulator")
+    void flushesPendingDeltas() {
+        counters.add(CounterType.POSTS, 1, 2);
+        counters.add(CounterType.POSTS, 1, 3);
+
+        counters.flush();
+        counters.flush();
+
+        verify(counterRepository, times(1)).add("POSTS", 1L, 5L);
+        assertEquals(0, counters.stats().get("pendingKeys"));
+    }
+
+    @Test
+    @DisplayName("Should add the unflushed delta to the cached stored value")
+    void getAddsPendingDelta() {
+        when(counterRepository.findById(new StatCounter.Key(CounterType.POSTS, 1))).thenReturn(stored(10));
+
+        assertEquals(10, counters.get(CounterType.POSTS, 1));
+        counters.add(CounterType.POSTS, 1, 4);
+
+        assertEquals(14, counters.get(CounterType.POSTS, 1));
+        verify(counterRepository, times(1)).findById(any());
+    }
+
+    @Test
+    @DisplayName("Should reload the stored value after a flush instead of patching the cache")
+    void flushEvictsStoredValue() {
+        when(counterRepository.findById(new StatCounter.Key(CounterType.POSTS, 1))).thenReturn(stored(10), stored(15));
+
+        assertEquals(10, counters.get(CounterType.POSTS, 1));
+        counters.add(CounterType.POSTS, 1, 5);
+        counters.flush();
+
+        assertEquals(15, counters.get(CounterType.POSTS, 1));
+        verify(counterRepository, times(2)).findById(any());
+    }
+
+    @Test
+    @DisplayName("Should keep the delta pending when the upsert fails and flush it on the next run")
+    void failedFlushKeepsDelta() {
+        doThrow(new RuntimeException("database is down")).doNothing()
+                .when(counterRepository).add(anyString(), anyLong(), anyLong());
+        when(counterRepository.findById(new StatCounter.Key(CounterType.POSTS, 1))).thenReturn(Optional.empty());
+
+        counters.add(CounterType.POSTS, 1, 5);
+        counters.flush();
+
+        assertEquals(1, counters.stats().get("pendingKeys"));
+        assertEquals(5, counters.get(CounterType.POSTS, 1));
+
+        counters.flush();
+
+        verify(counterRepository, times(2)).add("POSTS", 1L, 5L);
+        assertEquals(0, counters.stats().get("pendingKeys"));
+    }
+
+    @Test
+    @DisplayName("Should keep the in-flight delta visible to reads while the upsert runs")
+    void inFlightDeltaStaysVisible() {
+        when(counterRepository.findById(new StatCounter.Key(CounterType.POSTS, 1))).thenReturn(stored(10));
+        long[] duringFlush = new long[1];
+        doAnswer(invocation -> {
+            duringFlush[0] = counters.get(CounterType.POSTS, 1);
+            return null;
+        }).when(counterRepository).add("POSTS", 1L, 5L);
+
+        assertEquals(10, counters.get(CounterType.POSTS, 1));
+        counters.add(CounterType.POSTS, 1, 5);
+        counters.flush();
+
+        assertEquals(15, duringFlush[0]);
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.demo.service.feed;
+
+import com.example.demo.dto.CursorRequest;
+import com.example.demo.dto.PostView;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FeedPageCacheTest {
+
+    private static final CursorRequest FIRST_PAGE = new CursorRequest(null, 10, Sort.Direction.DESC);
+
+    private FeedPageCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new FeedPageCache(100, Duration.ofMinutes(1));
+    }
+
+    @Test
+    @DisplayName("Should drop the feeds listing an author and the author's own pages when the author posts")
+    void invalidateAuthorOnAddPost() {
+        Slice<PostView> page = page(10);
+        cache.putFeed(1, FIRST_PAGE, page, List.of(10, 11), cache.feedVersion(1));
+        cache.putFeed(2, FIRST_PAGE, page, List.of(11), cache.feedVersion(2));
+        cache.putPosts(10, FIRST_PAGE, page, cache.postsVersion(10));
+
+        cache.invalidateAuthor(10);
+
+        assertNull(cache.getFeed(1, FIRST_PAGE));
+        assertNull(cache.getPosts(10, FIRST_PAGE));
+        assertSame(page, cache.getFeed(2, FIRST_PAGE));
+    }
+
+    @Test
+    @DisplayName("Should drop only the reader's feed pages when the reader's timeline changes")
+    void invalidateReaderOnAddPost() {
+        Slice<PostView> page = page(10);
+        cache.putFeed(1, FIRST_PAGE, page, List.of(), cache.feedVersion(1));
+        cache.putFeed(1, new CursorRequest(null, 20, Sort.Direction.DESC), page, List.of(), cache.feedVersion(1));
+        cache.putFeed(2, FIRST_PAGE, page, List.of(), cache.feedVersion(2));
+
+        cache.invalidateReader(1);
+
+        assertNull(cache.getFeed(1, FIRST_PAGE));
+        assertNull(cache.getFeed(1, new CursorRequest(null, 20, Sort.Direction.DESC)));
+        assertSame(page, cache.getFeed(2, FIRST_PAGE));
+    }
+
+    @Test
+    @DisplayName("Should drop the subscriber's feed on unsubscribe and keep the author's pages")
+    void invalidateReaderOnUnsubscribe() {
+        Slice<PostView> page = page(10);
+        cache.putFeed(1, FIRST_PAGE, page, List.of(10), cache.feedVersion(1));
+        cache.putPosts(10, FIRST_PAGE, page, cache.postsVersion(10));
+
+        cache.invalidateReader(1);
+
+        assertNull(cache.getFeed(1, FIRST_PAGE));
+        assertSame(page, cache.getPosts(10, FIRST_PAGE));
+
+        cache.putFeed(1, FIRST_PAGE, page, List.of(), cache.feedVersion(1));
+        cache.invalidateAuthor(10);
+        assertSame(page, cache.getFeed(1, FIRST_PAGE));
+    }
+
+    @Test
+    @DisplayName("Should drop every page holding a removed post's author")
+    void invalidateOnRemovePost() {
+        Slice<PostView> page = page(10);
+        cache.putFeed(1, FIRST_PAGE, page, List.of(10), cache.feedVersion(1));
+        cache.putFeed(2, FIRST_PAGE, page, List.of(10), cache.feedVersion(2));
+        cache.putPosts(10, FIRST_PAGE, page, cache.postsVersion(10));
+        cache.putPosts(10, new CursorRequest(null, 10, Sort.Direction.ASC), page, cache.postsVersion(10));
+
+        cache.invalidateAuthor(10);
+
+        assertNull(cache.getFeed(1, FIRST_PAGE));
+        assertNull(cache.getFeed(2, FIRST_PAGE));
+        assertNull(cache.getPosts(10, FIRST_PAGE));
+        assertNull(cache.getPosts(10, new CursorRequest(null, 10, Sort.Direction.ASC)));
+        assertEquals(4L, cache.stats().get("invalidations"));
+    }
+
+    @Test
+    @DisplayName("Should not store a page computed before an invalidation")
+    void ignoreStalePut() {
+        long feedVersion = cache.feedVersion(1);
+        long postsVersion = cache.postsVersion(10);
+
+        cache.invalidateReader(1);
+        cache.invalidateAuthor(10);
+
+        cache.putFeed(1, FIRST_PAGE, page(10), List.of(10), feedVersion);
+        cache.putPosts(10, FIRST_PAGE, page(10), postsVersion);
+
+        assertNull(cache.getFeed(1, FIRST_PAGE));
+        assertNull(cache.getPosts(10, FIRST_PAGE));
+        assertNotEquals(feedVersion, cache.feedVersion(1));
+        assertNotEquals(postsVersion, cache.postsVersion(10));
+    }
+
+    @Test
+    @DisplayName("Should bump the reader's version when an author in the reader's cached feed posts")
+    void invalidateAuthorBumpsReaderVersion() {
+        long version = cache.feedVersion(1);
+        cache.putFeed(1, FIRST_PAGE, page(10), List.of(10), version);
+
+        cache.invalidateAuthor(10);
+
+        cache.putFeed(1, FIRST_PAGE, page(10), List.of(10), version);
+        assertNull(cache.getFeed(1, FIRST_PAGE));
+    }
+
+    @Test
+    @DisplayName("Should index a page stored again after its reader was invalidated")
+    void reindexAfterInvalidation() {
+        Slice<PostView> page = page(10);
+        cache.putFeed(1, FIRST_PAGE, page, List.of(10), cache.feedVersion(1));
+        cache.invalidateReader(1);
+
+        cache.putFeed(1, FIRST_PAGE, page, List.of(10), cache.feedVersion(1));
+        assertSame(page, cache.getFeed(1, FIRST_PAGE));
+
+        cache.invalidateAuthor(10);
+        assertNull(cache.getFeed(1, FIRST_PAGE));
+    }
+
+    private static Slice<PostView> page(int authorId) {
+        PostView post = new PostView(1, LocalDateTime.now(), "header", "text", authorId, "author");
+        return new SliceImpl<>(List.of(post), PageRequest.ofSize(10), false);
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.demo.service.feed;
+
+import com.example.demo.dto.PageCursor;
+import com.example.demo.dto.TimelineEntry;
+import com.example.demo.repository.PostRepository;
+import com.example.demo.service.graph.SocialGraphIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TimelineStoreTest {
+
+    @Mock
+    private PostRepository postRepository;
+
+    @Mock
+    private SocialGraphIndex graph;
+
+    @Mock
+    private AuthorPostBuffers authorBuffers;
+
+    private TimelineStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new TimelineStore(postRepository, graph, authorBuffers, 10, 10_000, 1);
+        when(graph.subscriptions(anyInt())).thenReturn(new int[]{10});
+        when(postRepository.findTimelineEntries(anyCollection(), any()))
+                .thenReturn(List.of(new TimelineEntry(1, 10, LocalDateTime.now())));
+    }
+
+    @Test
+    @DisplayName("Should keep only the most recent readers and rebuild an evicted timeline on its next read")
+    void evictsIdleReaders() {
+        assertEquals(1, store.read(1, null, 5).size());
+        assertEquals(1, store.read(2, null, 5).size());
+        assertEquals(1, store.read(1, null, 5).size());
+
+        verify(postRepository, times(3)).findTimelineEntries(anyCollection(), any());
+        assertEquals(1, store.stats().get("size"));
+        assertEquals(2L, store.stats().get("evictions"));
+    }
+
+    @Test
+    @DisplayName("Should not rebuild a cached timeline")
+    void reusesCachedTimeline() {
+        store.read(1, null, 5);
+        store.read(1, null, 5);
+
+        verify(postRepository, times(1)).findTimelineEntries(anyCollection(), any());
+    }
+
+    @Test
+    @DisplayName("Should fall back to the database past the merged posts of an author with more than capacity posts")
+    void subscribeToProlificAuthor() {
+        store = new TimelineStore(postRepository, graph, authorBuffers, 3, 10_000, 1);
+        LocalDateTime now = LocalDateTime.now();
+        when(postRepository.findTimelineEntries(anyCollection(), any()))
+                .thenReturn(List.of())
+                .thenReturn(List.of(
+                        new TimelineEntry(7, 20, now),
+                        new TimelineEntry(6, 20, now.minusMinutes(1)),
+                        new TimelineEntry(5, 20, now.minusMinutes(2))));
+        store.read(1, null, 3);
+
+        store.onSubscribed(1, 20);
+
+        assertEquals(3, store.read(1, null, 3).size());
+        assertNull(store.read(1, new PageCursor(now.minusMinutes(2), 5), 3));
+    }
+}
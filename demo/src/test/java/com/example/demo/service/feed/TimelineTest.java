@@ -0,0 +1,133 @@
+package com.example.demo.service.feed;
+
+import com.example.demo.dto.PageCursor;
+import com.example.demo.dto.TimelineEntry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimelineTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2023, 6, 1, 12, 0);
+
+    @Test
+    @DisplayName("Should keep entries newest first regardless of insertion order")
+    void insertKeepsNewestFirst() {
+        Timeline timeline = new Timeline(10);
+        timeline.load(List.of(), Set.of());
+
+        timeline.insert(new TimelineEntry(1, 7, NOW.minusHours(2)));
+        timeline.insert(new TimelineEntry(3, 8, NOW));
+        timeline.insert(new TimelineEntry(2, 7, NOW.minusHours(1)));
+
+        assertEquals(List.of(3, 2, 1), read(timeline, null, 10));
+        assertEquals(List.of(2), read(timeline, new PageCursor(NOW, 3), 1));
+    }
+
+    @Test
+    @DisplayName("Should trim the oldest entries and stop serving ranges past the trimmed tail")
+    void trimmedTimelineIsIncomplete() {
+        Timeline timeline = new Timeline(2);
+        timeline.load(List.of(), Set.of());
+
+        timeline.insert(new TimelineEntry(1, 7, NOW.minusHours(2)));
+        timeline.insert(new TimelineEntry(2, 7, NOW.minusHours(1)));
+        assertTrue(timeline.isComplete());
+
+        timeline.insert(new TimelineEntry(3, 7, NOW));
+
+        assertFalse(timeline.isComplete());
+        assertEquals(List.of(3, 2), read(timeline, null, 2));
+        assertNull(read(timeline, new PageCursor(NOW, 3), 2));
+    }
+
+    @Test
+    @DisplayName("Should drop posts of an author the reader unsubscribed from")
+    void removeAuthor() {
+        Timeline timeline = new Timeline(10);
+        timeline.load(List.of(
+                new TimelineEntry(3, 8, NOW),
+                new TimelineEntry(2, 7, NOW.minusHours(1)),
+                new TimelineEntry(1, 8, NOW.minusHours(2))), Set.of());
+
+        timeline.removeAuthor(8);
+        timeline.removePost(5);
+
+        assertEquals(List.of(2), read(timeline, null, 10));
+    }
+
+    @Test
+    @DisplayName("Should merge pulled author buffers into the pushed timeline")
+    void mergePulledAuthors() {
+        Timeline timeline = new Timeline(10);
+        timeline.load(List.of(
+                new TimelineEntry(4, 7, NOW),
+                new TimelineEntry(1, 7, NOW.minusHours(3))), Set.of(9));
+        AuthorPostBuffer celebrity = new AuthorPostBuffer(10, List.of(
+                new TimelineEntry(3, 9, NOW.minusHours(1)),
+                new TimelineEntry(2, 9, NOW.minusHours(2))));
+
+        List<TimelineEntry> merged = FeedMerge.merge(List.of(timeline.head(null, 4), celebrity.head(null, 4)), 4);
+
+        assertEquals(List.of(9), timeline.pulledAuthors());
+        assertEquals(List.of(4, 3, 2, 1), ids(merged));
+
+        PageCursor after = new PageCursor(NOW.minusHours(1), 3);
+        assertEquals(List.of(2, 1), ids(FeedMerge.merge(List.of(timeline.head(after, 4), celebrity.head(after, 4)), 4)));
+    }
+
+    @Test
+    @DisplayName("Should stop serving past a full merge of a new subscription's posts")
+    void fullMergeIsIncomplete() {
+        Timeline timeline = new Timeline(3);
+        timeline.load(List.of(new TimelineEntry(1, 7, NOW.minusHours(5))), Set.of());
+
+        timeline.merge(List.of(
+                new TimelineEntry(4, 9, NOW),
+                new TimelineEntry(3, 9, NOW.minusHours(1)),
+                new TimelineEntry(2, 9, NOW.minusHours(2))), 3);
+
+        assertFalse(timeline.isComplete());
+        assertEquals(List.of(4, 3, 2), read(timeline, null, 3));
+        assertNull(read(timeline, new PageCursor(NOW.minusHours(2), 2), 3));
+    }
+
+    @Test
+    @DisplayName("Should stay complete after merging every post of a new subscription")
+    void shortMergeStaysComplete() {
+        Timeline timeline = new Timeline(3);
+        timeline.load(List.of(new TimelineEntry(1, 7, NOW.minusHours(5))), Set.of());
+
+        timeline.merge(List.of(new TimelineEntry(2, 9, NOW)), 3);
+
+        assertTrue(timeline.isComplete());
+        assertEquals(List.of(2, 1), read(timeline, null, 3));
+    }
+
+    @Test
+    @DisplayName("Should stop merging when a trimmed author buffer runs out")
+    void mergeStopsAtTrimmedBuffer() {
+        AuthorPostBuffer celebrity = new AuthorPostBuffer(1, List.of(
+                new TimelineEntry(3, 9, NOW.minusHours(1)),
+                new TimelineEntry(2, 9, NOW.minusHours(2))));
+        FeedSource pushed = new FeedSource(List.of(
+                new TimelineEntry(4, 7, NOW),
+                new TimelineEntry(1, 7, NOW.minusHours(3))), true);
+
+        assertEquals(List.of(4, 3), ids(FeedMerge.merge(List.of(pushed, celebrity.head(null, 2)), 2)));
+        assertNull(FeedMerge.merge(List.of(pushed, celebrity.head(null, 3)), 3));
+    }
+
+    private static List<Integer> read(Timeline timeline, PageCursor after, int size) {
+        return ids(FeedMerge.merge(List.of(timeline.head(after, size)), size));
+    }
+
+    private static List<Integer> ids(List<TimelineEntry> entries) {
+        return entries == null ? null : entries.stream().map(TimelineEntry::postId).toList();
+    }
+}
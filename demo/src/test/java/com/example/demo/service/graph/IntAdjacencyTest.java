@@ -0,0 +1,107 @@
+package com.example.demo.service.graph;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntAdjacencyTest {
+
+    @Test
+    @DisplayName("Should keep neighbours sorted and ignore duplicate edges")
+    void addKeepsOrder() {
+        IntAdjacency adjacency = new IntAdjacency();
+
+        assertTrue(adjacency.add(1, 30));
+        assertTrue(adjacency.add(1, 10));
+        assertTrue(adjacency.add(1, 20));
+        assertFalse(adjacency.add(1, 20));
+
+        assertArrayEquals(new int[]{10, 20, 30}, adjacency.get(1));
+        assertTrue(adjacency.contains(1, 20));
+        assertFalse(adjacency.contains(2, 20));
+        assertEquals(3, adjacency.edges());
+    }
+
+    @Test
+    @DisplayName("Should publish a new array on removal and drop empty nodes")
+    void removeIsCopyOnWrite() {
+        IntAdjacency adjacency = new IntAdjacency();
+        adjacency.add(1, 10);
+        adjacency.add(1, 20);
+
+        int[] before = adjacency.get(1);
+        assertTrue(adjacency.remove(1, 10));
+        assertFalse(adjacency.remove(1, 10));
+
+        assertArrayEquals(new int[]{10, 20}, before);
+        assertArrayEquals(new int[]{20}, adjacency.get(1));
+
+        adjacency.remove(1, 20);
+        assertEquals(0, adjacency.nodes());
+        assertEquals(0, adjacency.edges());
+        assertEquals(0, adjacency.get(1).length);
+    }
+
+    @Test
+    @DisplayName("Should bulk load unsorted edges into sorted, de-duplicated arrays")
+    void loadFromBuilder() {
+        IntAdjacency.Builder builder = new IntAdjacency.Builder();
+        builder.add(2, 5);
+        builder.add(1, 9);
+        builder.add(2, 3);
+        builder.add(1, 4);
+        builder.add(2, 5);
+
+        IntAdjacency adjacency = new IntAdjacency();
+        adjacency.load(builder);
+
+        assertArrayEquals(new int[]{4, 9}, adjacency.get(1));
+        assertArrayEquals(new int[]{3, 5}, adjacency.get(2));
+        assertEquals(4, adjacency.edges());
+    }
+
+    @Test
+    @DisplayName("Should match a sorted set across many follows and unfollows that cross the merge threshold")
+    void pendingChangesMerge() {
+        IntAdjacency adjacency = new IntAdjacency();
+        TreeSet<Integer> expected = new TreeSet<>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 20_000; i++) {
+            int neighbour = random.nextInt(5_000);
+            if (random.nextInt(3) == 0) assertEquals(expected.remove(neighbour), adjacency.remove(1, neighbour));
+            else assertEquals(expected.add(neighbour), adjacency.add(1, neighbour));
+
+            if (i % 1_000 == 0) assertArrayEquals(expected.stream().mapToInt(Integer::intValue).toArray(), adjacency.get(1));
+            assertEquals(expected.size(), adjacency.degree(1));
+        }
+
+        assertEquals(expected.contains(7), adjacency.contains(1, 7));
+        assertArrayEquals(expected.stream().mapToInt(Integer::intValue).toArray(), adjacency.get(1));
+        assertEquals(expected.size(), adjacency.edges());
+    }
+
+    @Test
+    @DisplayName("Should not lose concurrent follows of the same node")
+    void concurrentAdds() throws InterruptedException {
+        IntAdjacency adjacency = new IntAdjacency();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            int offset = t;
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 5_000; i++) adjacency.add(1, i * threads.length + offset);
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) thread.join();
+
+        assertEquals(20_000, adjacency.degree(1));
+        assertEquals(20_000, adjacency.edges());
+        int[] all = adjacency.get(1);
+        for (int i = 0; i < all.length; i++) assertEquals(i, all[i]);
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.demo.service.graph;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntSetsTest {
+
+    @Test
+    @DisplayName("Should count the whole intersection of similar lists and keep the first ids")
+    void mergesSimilarLists() {
+        IntSets.Intersection mutual = IntSets.intersect(new int[]{1, 3, 5, 7, 9}, new int[]{2, 3, 4, 5, 9, 11}, 2);
+
+        assertEquals(3, mutual.count());
+        assertArrayEquals(new int[]{3, 5}, mutual.first());
+    }
+
+    @Test
+    @DisplayName("Should gallop through a much longer list with the same result as a merge")
+    void gallopsThroughLongList() {
+        int[] large = IntStream.range(0, 10_000).map(i -> i * 3).toArray();
+        int[] small = {0, 2, 3, 299, 300, 29_997, 40_000};
+
+        IntSets.Intersection mutual = IntSets.intersect(small, large, 10);
+
+        assertEquals(4, mutual.count());
+        assertArrayEquals(new int[]{0, 3, 300, 29_997}, mutual.first());
+        assertEquals(mutual.count(), IntSets.intersect(large, small, 0).count());
+    }
+
+    @Test
+    @DisplayName("Should handle empty lists")
+    void emptyLists() {
+        IntSets.Intersection mutual = IntSets.intersect(new int[0], new int[]{1, 2}, 5);
+
+        assertEquals(0, mutual.count());
+        assertEquals(0, mutual.first().length);
+    }
+
+    @Test
+    @DisplayName("Should agree with a naive intersection on random lists")
+    void matchesNaive() {
+        Random random = new Random(3);
+        for (int round = 0; round < 100; round++) {
+            int[] a = random.ints(random.nextInt(50), 0, 1000).distinct().sorted().toArray();
+            int[] b = random.ints(random.nextInt(5000), 0, 1000).distinct().sorted().toArray();
+            int[] expected = Arrays.stream(a).filter(id -> Arrays.binarySearch(b, id) >= 0).toArray();
+
+            IntSets.Intersection mutual = IntSets.intersect(a, b, Integer.MAX_VALUE);
+            assertEquals(expected.length, mutual.count());
+            assertArrayEquals(expected, mutual.first());
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.demo.service.graph;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TwoHopCountTest {
+
+    @Test
+    @DisplayName("Should count every path through the given nodes and skip hubs")
+    void countsPaths() {
+        IntAdjacency friends = new IntAdjacency();
+        friends.add(2, 4);
+        friends.add(3, 4);
+        friends.add(3, 5);
+        for (int i = 100; i < 110; i++) friends.add(9, i);
+
+        IntCounter counts = TwoHopCount.count(new int[]{2, 3, 9}, friends::get, 5);
+
+        assertEquals(2, counts.get(4));
+        assertEquals(1, counts.get(5));
+        assertEquals(0, counts.get(100));
+        assertEquals(2, counts.size());
+    }
+
+    @Test
+    @DisplayName("Should give the same counts in parallel as on one thread")
+    void parallelMatchesSequential() {
+        Random random = new Random(7);
+        IntAdjacency friends = new IntAdjacency();
+        for (int i = 0; i < 50_000; i++) friends.add(random.nextInt(1000), random.nextInt(1000));
+        int[] via = new int[500];
+        for (int i = 0; i < via.length; i++) via[i] = i * 2;
+
+        IntCounter sequential = TwoHopCount.count(via, friends::get, 100);
+        TwoHopCount task = TwoHopCount.forkable(via, friends::get, 100, 64);
+        assertNotNull(task);
+        IntCounter parallel = ForkJoinPool.commonPool().invoke(task);
+
+        assertEquals(sequential.size(), parallel.size());
+        sequential.forEach((id, count) -> assertEquals(count, parallel.get(id)));
+    }
+
+    @Test
+    @DisplayName("Should not fork small counts")
+    void smallCountsStayOnCaller() {
+        IntAdjacency friends = new IntAdjacency();
+        friends.add(1, 2);
+
+        assertNull(TwoHopCount.forkable(new int[]{1}, friends::get, 100, 64));
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.demo.service.hot;
+
+import com.example.demo.dto.PageCursor;
+import com.example.demo.dto.PostView;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HotPostStoreTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    @TempDir
+    Path dir;
+
+    private HotPostStore store(DataSize capacity) {
+        return new HotPostStore(true, capacity, DataSize.ofKilobytes(64), dir.resolve("hot.snapshot").toString(), 0, 100, null);
+    }
+
+    private static PostView post(int id, int authorId, int minute, String content) {
+        return new PostView(id, START.plusMinutes(minute), "headline " + id, content, authorId, "user" + authorId);
+    }
+
+    private static List<Integer> ids(List<PostView> posts) {
+        return posts.stream().map(PostView::id).toList();
+    }
+
+    @Test
+    @DisplayName("Should page newest first across authors and after a cursor")
+    void pagesNewestFirst() {
+        HotPostStore store = store(DataSize.ofMegabytes(1));
+        store.add(post(1, 1, 1, "a"));
+        store.add(post(2, 2, 2, "b"));
+        store.add(post(3, 1, 3, "c"));
+        store.add(post(4, 3, 4, "d"));
+
+        assertEquals(List.of(4, 3, 2), ids(store.page(new int[]{1, 2, 3}, null, 3)));
+        assertEquals(List.of(2, 1), ids(store.page(new int[]{1, 2}, new PageCursor(START.plusMinutes(3), 3), 3)));
+        assertEquals(List.of(), store.page(new int[]{4}, null, 3));
+    }
+
+    @Test
+    @DisplayName("Should keep an author's posts ordered when they arrive out of order")
+    void linksOutOfOrder() {
+        HotPostStore store = store(DataSize.ofMegabytes(1));
+        store.add(post(1, 1, 1, "a"));
+        store.add(post(3, 1, 5, "c"));
+        store.add(post(2, 1, 3, "b"));
+        store.add(post(4, 1, 0, "d"));
+
+        assertEquals(List.of(3, 2, 1, 4), ids(store.page(new int[]{1}, null, 10)));
+    }
+
+    @Test
+    @DisplayName("Should read posts by id and forget removed ones")
+    void getsAndRemoves() {
+        HotPostStore store = store(DataSize.ofMegabytes(1));
+        store.add(post(1, 1, 1, "Привет"));
+        store.add(new PostView(2, START, null, "b", 1, "user1"));
+        store.remove(1);
+
+        Map<Integer, PostView> posts = store.getAll(List.of(1, 2, 3));
+        assertEquals(List.of(2), List.copyOf(posts.keySet()));
+        assertNull(posts.get(2).headline());
+        assertEquals(List.of(2), ids(store.page(new int[]{1}, null, 10)));
+    }
+
+    @Test
+    @DisplayName("Should refuse pages that reach into dropped segments")
+    void refusesDroppedRange() {
+        HotPostStore store = store(DataSize.ofKilobytes(128));
+        String content = "x".repeat(10_000);
+        for (int id = 1; id <= 30; id++) store.add(post(id, 1, id, content));
+
+        assertNull(store.getAll(List.of(1)).get(1));
+        assertEquals(List.of(30, 29, 28), ids(store.page(new int[]{1}, null, 3)));
+        assertNull(store.page(new int[]{1}, null, 30));
+        assertNull(store.page(new int[]{2}, null, 1));
+    }
+
+    @Test
+    @DisplayName("Should restore the same contents from a snapshot")
+    void roundTripsSnapshot() throws Exception {
+        HotPostStore store = store(DataSize.ofKilobytes(128));
+        String content = "x".repeat(10_000);
+        for (int id = 1; id <= 30; id++) store.add(post(id, id % 2, id, content));
+        store.remove(30);
+        store.writeSnapshot();
+
+        HotPostStore restored = store(DataSize.ofKilobytes(128));
+        restored.readSnapshot();
+
+        assertEquals(ids(store.page(new int[]{0, 1}, null, 5)), ids(restored.page(new int[]{0, 1}, null, 5)));
+        assertEquals(store.getAll(List.of(25, 29, 30)), restored.getAll(List.of(25, 29, 30)));
+        assertNull(restored.page(new int[]{0}, null, 30));
+    }
+}
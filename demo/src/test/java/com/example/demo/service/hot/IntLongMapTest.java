@@ -0,0 +1,49 @@
+package com.example.demo.service.hot;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntLongMapTest {
+
+    @Test
+    @DisplayName("Should agree with a HashMap under random puts and removes")
+    void matchesHashMap() {
+        IntLongMap map = new IntLongMap();
+        Map<Integer, Long> expected = new HashMap<>();
+        Random random = new Random(7);
+
+        for (int i = 0; i < 100_000; i++) {
+            int key = random.nextInt(5_000);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key) != null, map.remove(key));
+            }
+            else {
+                long value = random.nextLong() & Long.MAX_VALUE;
+                map.put(key, value);
+                expected.put(key, value);
+            }
+        }
+
+        assertEquals(expected.size(), map.size());
+        for (int key = 0; key < 5_000; key++)
+            assertEquals(expected.getOrDefault(key, IntLongMap.MISSING), map.get(key));
+    }
+
+    @Test
+    @DisplayName("Should remove a key only while it maps to the given value")
+    void removesMatchingValue() {
+        IntLongMap map = new IntLongMap();
+        map.put(1, 10);
+
+        assertFalse(map.remove(1, 11));
+        assertEquals(10, map.get(1));
+        assertTrue(map.remove(1, 10));
+        assertEquals(IntLongMap.MISSING, map.get(1));
+    }
+}
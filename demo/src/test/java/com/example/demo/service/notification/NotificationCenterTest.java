@@ -0,0 +1,83 @@
+package com.example.demo.service.notification;
+
+import com.example.demo.data.Notification;
+import com.example.demo.data.NotificationType;
+import com.example.demo.dto.NotificationView;
+import com.example.demo.dto.UserRef;
+import com.example.demo.repository.NotificationRepository;
+import com.example.demo.repository.NotificationSequenceRepository;
+import com.example.demo.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class NotificationCenterTest {
+
+    @Mock
+    private NotificationRepository notificationRepository;
+
+    @Mock
+    private NotificationSequenceRepository notificationSequenceRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    private NotificationCenter center;
+
+    @BeforeEach
+    void setUp() {
+        center = new NotificationCenter(notificationRepository, notificationSequenceRepository, userRepository, Duration.ofDays(30), 100);
+    }
+
+    @Test
+    @DisplayName("Should take the recipient's next seq before storing the notification")
+    void publishAssignsSeq() {
+        when(notificationSequenceRepository.next(2)).thenReturn(8L);
+        when(notificationRepository.save(any(Notification.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        Notification notification = center.publish(2, 1, NotificationType.FRIEND_REQUEST);
+
+        assertEquals(8L, notification.getSeq());
+        InOrder order = inOrder(notificationSequenceRepository, notificationRepository);
+        order.verify(notificationSequenceRepository).next(2);
+        order.verify(notificationRepository).save(notification);
+    }
+
+    @Test
+    @DisplayName("Should return notifications after the given seq and expose their seq as the cursor")
+    void newerBySeq() {
+        Notification notification = new Notification(2, 8, 1, NotificationType.FRIEND_APPROVE, LocalDateTime.now());
+        notification.setId(3);
+        when(notificationRepository.findByRecipientIdAndSeqGreaterThanOrderBySeqAsc(eq(2), eq(7L), any(Pageable.class)))
+                .thenReturn(List.of(notification));
+        when(userRepository.findRefsByIdIn(anyCollection())).thenReturn(List.of(new UserRef(1, "user1")));
+
+        List<NotificationView> newer = center.newer(2, 7, 20);
+
+        assertEquals(1, newer.size());
+        assertEquals(8L, newer.get(0).seq());
+        assertEquals("user1", newer.get(0).from());
+    }
+
+    @Test
+    @DisplayName("Should reject page sizes above the cap")
+    void rejectsOversizedPages() {
+        Exception exception = assertThrows(IllegalArgumentException.class, () -> center.newer(2, 0, 101));
+        assertEquals("Page size must not be greater than 100", exception.getMessage());
+        verifyNoInteractions(notificationRepository);
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.demo.service.push;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MailboxTest {
+
+    private static byte[] frame(int id) {
+        return ("id:" + id + "\n\n").getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    @DisplayName("Should drop the oldest event when full")
+    void dropsOldestWhenFull() {
+        FakeSink sink = new FakeSink();
+        Mailbox mailbox = new Mailbox(2, 2);
+        mailbox.connect(sink);
+
+        assertFalse(mailbox.offer(frame(1)));
+        assertFalse(mailbox.offer(frame(2)));
+        assertTrue(mailbox.offer(frame(3)));
+
+        mailbox.onWritePossible();
+        assertEquals(List.of("id:2\n\n", "id:3\n\n"), sink.written());
+    }
+
+    @Test
+    @DisplayName("Should write only while the sink is ready and resume when the container calls back")
+    void writesOnlyWhenReady() {
+        FakeSink sink = new FakeSink();
+        Mailbox mailbox = new Mailbox(2, 10);
+        mailbox.connect(sink);
+        mailbox.onWritePossible();
+
+        sink.readyWrites = 1;
+        mailbox.offer(frame(1));
+        mailbox.offer(frame(2));
+        assertEquals(List.of("id:1\n\n"), sink.written());
+
+        sink.readyWrites = Integer.MAX_VALUE;
+        mailbox.offer(frame(3));
+        assertEquals(List.of("id:1\n\n"), sink.written());
+
+        mailbox.onWritePossible();
+        assertEquals(List.of("id:1\n\n", "id:2\n\n", "id:3\n\n"), sink.written());
+    }
+
+    @Test
+    @DisplayName("Should report a stream stalled once writes wait longer than the timeout")
+    void detectsStall() {
+        FakeSink sink = new FakeSink();
+        Mailbox mailbox = new Mailbox(2, 10);
+        mailbox.connect(sink);
+        mailbox.onWritePossible();
+        assertFalse(mailbox.isStalled(System.currentTimeMillis() + 60_000, 1_000));
+
+        sink.readyWrites = 0;
+        mailbox.offer(frame(1));
+        long now = System.currentTimeMillis();
+        assertFalse(mailbox.isStalled(now, 60_000));
+        assertTrue(mailbox.isStalled(now + 60_000, 60_000));
+
+        sink.readyWrites = Integer.MAX_VALUE;
+        mailbox.onWritePossible();
+        assertFalse(mailbox.isStalled(now + 60_000, 60_000));
+    }
+
+    @Test
+    @DisplayName("Should complete the sink on close and ignore events afterwards")
+    void closeCompletesSink() {
+        FakeSink sink = new FakeSink();
+        Mailbox mailbox = new Mailbox(2, 2);
+        mailbox.connect(sink);
+        mailbox.onWritePossible();
+
+        mailbox.close();
+        mailbox.close();
+
+        assertEquals(1, sink.completions);
+        assertFalse(mailbox.offer(frame(1)));
+        assertTrue(sink.written().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should complete a sink connected after the mailbox was closed")
+    void connectAfterClose() {
+        FakeSink sink = new FakeSink();
+        Mailbox mailbox = new Mailbox(2, 2);
+        mailbox.close();
+
+        mailbox.connect(sink);
+
+        assertEquals(1, sink.completions);
+    }
+
+    static class FakeSink implements EventSink {
+
+        final List<byte[]> frames = new ArrayList<>();
+        int readyWrites = Integer.MAX_VALUE;
+        int completions;
+
+        @Override
+        public boolean isReady() {
+            return readyWrites > 0;
+        }
+
+        @Override
+        public void write(byte[] frame) {
+            frames.add(frame);
+            readyWrites--;
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void complete() {
+            completions++;
+        }
+
+        List<String> written() {
+            return frames.stream().map(frame -> new String(frame, StandardCharsets.UTF_8)).toList();
+        }
+    }
+}
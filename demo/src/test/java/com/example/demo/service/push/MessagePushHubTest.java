@@ -0,0 +1,145 @@
+package com.example.demo.service.push;
+
+import com.example.demo.data.Message;
+import com.example.demo.data.MessageType;
+import com.example.demo.data.User;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MessagePushHubTest {
+
+    private final List<MessagePushHub> hubs = new ArrayList<>();
+
+    private MessagePushHub hub(int maxStreamsPerUser) {
+        MessagePushHub hub = new MessagePushHub(new ObjectMapper().findAndRegisterModules(), 10, maxStreamsPerUser,
+                Duration.ofMinutes(1), Duration.ZERO);
+        hubs.add(hub);
+        return hub;
+    }
+
+    @AfterEach
+    void tearDown() {
+        hubs.forEach(MessagePushHub::shutdown);
+    }
+
+    @Test
+    @DisplayName("Should refuse streams over the per-user limit")
+    void limitsStreamsPerUser() {
+        MessagePushHub hub = hub(2);
+
+        hub.register(1);
+        hub.register(1);
+        hub.register(2);
+
+        assertThrows(IllegalStateException.class, () -> hub.register(1));
+        assertEquals(3, hub.stats().get("openStreams"));
+        assertEquals(2, hub.stats().get("connectedUsers"));
+    }
+
+    @Test
+    @DisplayName("Should not leave an empty entry behind a refused stream")
+    void refusedOpenLeavesNoEntry() {
+        MessagePushHub hub = hub(0);
+
+        assertThrows(IllegalStateException.class, () -> hub.register(1));
+        assertEquals(0, hub.stats().get("openStreams"));
+        assertEquals(0, hub.stats().get("connectedUsers"));
+    }
+
+    @Test
+    @DisplayName("Should keep the limit when streams are opened concurrently")
+    void limitHoldsUnderConcurrency() throws Exception {
+        MessagePushHub hub = hub(3);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger opened = new AtomicInteger();
+
+        List<Future<?>> attempts = new ArrayList<>();
+        for (int i = 0; i < 32; i++)
+            attempts.add(executor.submit(() -> {
+                start.await();
+                try {
+                    hub.register(1);
+                    opened.incrementAndGet();
+                }
+                catch (IllegalStateException ignored) {
+                }
+                return null;
+            }));
+        start.countDown();
+        for (Future<?> attempt : attempts) attempt.get(10, TimeUnit.SECONDS);
+        executor.shutdown();
+
+        assertEquals(3, opened.get());
+        assertEquals(3, hub.stats().get("openStreams"));
+    }
+
+    @Test
+    @DisplayName("Should deliver a published message to every stream of its recipient")
+    void publishReachesRecipientStreams() {
+        MessagePushHub hub = hub(2);
+        MailboxTest.FakeSink first = connect(hub.register(2));
+        MailboxTest.FakeSink second = connect(hub.register(2));
+        MailboxTest.FakeSink other = connect(hub.register(3));
+
+        hub.publish(message(42, 1, 2));
+
+        assertEquals(1, first.written().size());
+        assertTrue(first.written().get(0).startsWith("event:message\nid:42\ndata:{\"id\":42,"));
+        assertEquals(first.written(), second.written());
+        assertTrue(other.written().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should close streams whose client stopped reading")
+    void closesStalledStreams() {
+        MessagePushHub hub = hub(2);
+        MailboxTest.FakeSink stalled = connect(hub.register(2));
+        MailboxTest.FakeSink reading = connect(hub.register(3));
+        stalled.readyWrites = 0;
+
+        hub.publish(message(42, 1, 2));
+        hub.heartbeat();
+
+        assertEquals(1, stalled.completions);
+        assertEquals(0, reading.completions);
+        assertEquals(1, reading.written().size());
+        assertEquals(1, hub.stats().get("openStreams"));
+        assertEquals(1L, hub.stats().get("stalled"));
+    }
+
+    private static MailboxTest.FakeSink connect(Mailbox mailbox) {
+        MailboxTest.FakeSink sink = new MailboxTest.FakeSink();
+        mailbox.connect(sink);
+        mailbox.onWritePossible();
+        return sink;
+    }
+
+    private static Message message(int id, int fromId, int toId) {
+        Message message = new Message();
+        message.setId(id);
+        message.setFrom(user(fromId));
+        message.setTo(user(toId));
+        message.setContent("Hi");
+        message.setDateTime(LocalDateTime.now());
+        message.setType(MessageType.MESSAGE);
+        return message;
+    }
+
+    private static User user(int id) {
+        User user = new User("user" + id, "password", "user" + id + "@example.com");
+        user.setId(id);
+        return user;
+    }
+}
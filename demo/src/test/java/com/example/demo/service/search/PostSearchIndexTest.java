@@ -0,0 +1,84 @@
+package com.example.demo.service.search;
+
+import com.example.demo.dto.PostText;
+import com.example.demo.repository.PostRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class PostSearchIndexTest {
+
+    private PostSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        PostRepository postRepository = mock(PostRepository.class);
+        when(postRepository.findTextsAfter(anyInt(), any())).thenReturn(List.of());
+        index = new PostSearchIndex(postRepository, 100, 0.5);
+        index.rebuild();
+    }
+
+    @Test
+    @DisplayName("Should rank posts with more matching terms and headline matches first")
+    void ranksByRelevance() {
+        index.add(new PostText(1, 10, "Weekend", "went hiking in the mountains"));
+        index.add(new PostText(2, 10, "Mountains", "hiking trip photos"));
+        index.add(new PostText(3, 11, "Recipes", "baking bread at home"));
+
+        assertEquals(List.of(2, 1), ids(index.search("mountains hiking", authorId -> true, null, 10)));
+        assertEquals(List.of(3), ids(index.search("BREAD", authorId -> true, null, 10)));
+        assertTrue(index.search("nothing", authorId -> true, null, 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should size the ranking queue by the matches, not by the requested limit")
+    void toleratesHugeLimit() {
+        index.add(new PostText(1, 10, "post", "some words"));
+
+        assertEquals(List.of(1), ids(index.search("words", authorId -> true, null, Integer.MAX_VALUE)));
+    }
+
+    @Test
+    @DisplayName("Should page through hits with a score cursor and honour the author filter")
+    void pagesAndFilters() {
+        for (int id = 1; id <= 5; id++) index.add(new PostText(id, id % 2, "post", "same words"));
+
+        List<SearchHit> first = index.search("words", authorId -> true, null, 2);
+        List<SearchHit> second = index.search("words", authorId -> true, first.get(1).cursor(), 2);
+        List<SearchHit> third = index.search("words", authorId -> true, second.get(1).cursor(), 2);
+
+        assertEquals(List.of(5, 4), ids(first));
+        assertEquals(List.of(3, 2), ids(second));
+        assertEquals(List.of(1), ids(third));
+        assertEquals(List.of(4, 2), ids(index.search("words", authorId -> authorId == 0, null, 10)));
+    }
+
+    @Test
+    @DisplayName("Should drop removed posts and accept ids committed out of order")
+    void removesAndInsertsOutOfOrder() {
+        index.add(new PostText(5, 1, "", "shared term"));
+        index.add(new PostText(3, 1, "", "shared term"));
+        index.add(new PostText(4, 1, "", "shared term"));
+        index.remove(4);
+        index.remove(5);
+        index.add(new PostText(5, 1, "", "shared term"));
+
+        assertEquals(List.of(3), ids(index.search("shared", authorId -> true, null, 10)));
+    }
+
+    @Test
+    @DisplayName("Should reject queries without words")
+    void rejectsEmptyQuery() {
+        assertThrows(IllegalArgumentException.class, () -> index.search(" ?! ", authorId -> true, null, 10));
+    }
+
+    private static List<Integer> ids(List<SearchHit> hits) {
+        return hits.stream().map(SearchHit::postId).toList();
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.demo.service.trending;
+
+import com.example.demo.dto.Trend;
+import com.example.demo.dto.TrendingSnapshot;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrendingWindowTest {
+
+    private static final long HOUR = Duration.ofHours(1).toMillis();
+
+    @Test
+    @DisplayName("Should rank authors by activity and favour posts of hot authors")
+    void ranksByActivity() {
+        TrendingWindow window = new TrendingWindow("1h", Duration.ofHours(1), 10, 1024, 4, 0);
+
+        window.onSubscribed(2, "popular", 0);
+        window.onSubscribed(2, "popular", 0);
+        window.onPostAdded(10, "quiet post", 1, "quiet", 0);
+        window.onPostAdded(11, "popular post", 2, "popular", 0);
+
+        TrendingSnapshot snapshot = window.snapshot(0);
+        assertEquals(List.of(2, 1), ids(snapshot.authors()));
+        assertEquals(List.of(11, 10), ids(snapshot.posts()));
+        assertEquals(5, snapshot.authors().get(0).score(), 1e-9);
+    }
+
+    @Test
+    @DisplayName("Should decay old activity so newer events overtake it")
+    void decaysOverTime() {
+        TrendingWindow window = new TrendingWindow("1h", Duration.ofHours(1), 10, 1024, 4, 0);
+
+        window.onPostAdded(10, "old", 1, "old", 0);
+        window.onPostAdded(11, "old", 1, "old", 0);
+        window.onPostAdded(12, "new", 2, "new", 3 * HOUR);
+
+        TrendingSnapshot snapshot = window.snapshot(3 * HOUR);
+        assertEquals(List.of(2, 1), ids(snapshot.authors()));
+        assertEquals(2 * Math.exp(-3), snapshot.authors().get(1).score(), 1e-9);
+    }
+
+    @Test
+    @DisplayName("Should keep ranking and scores across a landmark reset")
+    void survivesLandmarkReset() {
+        TrendingWindow window = new TrendingWindow("1h", Duration.ofHours(1), 2, 1024, 4, 0);
+
+        window.onPostAdded(10, "a", 1, "a", 0);
+        window.onPostAdded(11, "b", 2, "b", 45 * HOUR);
+        window.onPostAdded(12, "c", 3, "c", 45 * HOUR);
+        window.onPostRemoved(12);
+
+        TrendingSnapshot snapshot = window.snapshot(45 * HOUR);
+        assertEquals(List.of(11), ids(snapshot.posts()));
+        assertEquals(2, snapshot.posts().get(0).score(), 1e-9);
+        assertEquals(2, snapshot.authors().size());
+    }
+
+    private static List<Integer> ids(List<Trend> trends) {
+        return trends.stream().map(Trend::id).toList();
+    }
+}